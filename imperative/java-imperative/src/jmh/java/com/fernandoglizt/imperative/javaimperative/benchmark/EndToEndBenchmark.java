@@ -0,0 +1,115 @@
+package com.fernandoglizt.imperative.javaimperative.benchmark;
+
+import com.fernandoglizt.imperative.javaimperative.client.JdkHttpDownstreamClient;
+import com.fernandoglizt.imperative.javaimperative.fixture.SlowIoStub;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
+import com.fernandoglizt.imperative.javaimperative.service.AdaptiveLimit;
+import com.fernandoglizt.imperative.javaimperative.service.BatchCallRunner;
+import com.fernandoglizt.imperative.javaimperative.service.CallCoalescer;
+import com.fernandoglizt.imperative.javaimperative.service.CancellationStats;
+import com.fernandoglizt.imperative.javaimperative.service.CircuitBreakers;
+import com.fernandoglizt.imperative.javaimperative.service.CompletableFutureBatchEngine;
+import com.fernandoglizt.imperative.javaimperative.service.DownstreamTargets;
+import com.fernandoglizt.imperative.javaimperative.service.ExecutorBatchEngine;
+import com.fernandoglizt.imperative.javaimperative.service.HedgePolicy;
+import com.fernandoglizt.imperative.javaimperative.service.ImperativeProcessor;
+import com.fernandoglizt.imperative.javaimperative.service.InflightLimiter;
+import com.fernandoglizt.imperative.javaimperative.service.ProcessMetrics;
+import com.fernandoglizt.imperative.javaimperative.service.ReactorBatchEngine;
+import com.fernandoglizt.imperative.javaimperative.service.RetryPolicy;
+import com.fernandoglizt.imperative.javaimperative.service.StructuredBatchEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Full {@link ImperativeProcessor#processEvents} over real sockets against {@link SlowIoStub}, the
+ * in-process slow-io: the JDK client, its connection pool and HTTP parsing are part of the score,
+ * and io_delay_ms=0 isolates them from the simulated downstream latency. No Docker needed.
+ */
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    @Param({"2000"})
+    private int count;
+
+    @Param({"100"})
+    private int batch;
+
+    @Param({"0", "50"})
+    private int ioDelayMs;
+
+    @Param({"executor", "structured", "platform", "completable-future", "reactor"})
+    private String engine;
+
+    // batch goes through BatchCallRunner whatever the engine
+    @Param({"item", "batch"})
+    private String callMode;
+
+    private SlowIoStub slowIo;
+    private JdkHttpDownstreamClient client;
+    private ExecutorService executor;
+    private ExecutorService platformPool;
+    private ScheduledExecutorService scheduler;
+    private ImperativeProcessor processor;
+    private ProcessRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        slowIo = SlowIoStub.start();
+        client = new JdkHttpDownstreamClient(Duration.ofSeconds(10), 256);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        platformPool = Executors.newFixedThreadPool(128);
+        scheduler = new ScheduledThreadPoolExecutor(1);
+
+        InflightLimiter limiter = new InflightLimiter(256, 4, 64);
+        RetryPolicy retryPolicy = new RetryPolicy(1, 100, 300, 0.1, 100);
+        AdaptiveLimit adaptiveLimit = new AdaptiveLimit("fixed", 256, 8, 1024, 1000);
+        // Breaker off, its default: a tripped host would turn measured runs into fast-fails
+        CircuitBreakers breakers = new CircuitBreakers(false, 100, 20, 50, 1000, 80, 5000, 5);
+        HedgePolicy hedgePolicy = new HedgePolicy(false, 0, 5, 100);
+        CallCoalescer coalescer = new CallCoalescer(1000, 1024);
+        ProcessMetrics metrics = new ProcessMetrics(new SimpleMeterRegistry(), retryPolicy, limiter, breakers,
+            hedgePolicy, coalescer);
+
+        processor = new ImperativeProcessor(client,
+            List.of(
+                new ExecutorBatchEngine(executor, limiter),
+                new StructuredBatchEngine(limiter, 4, 64),
+                new ExecutorBatchEngine("platform", platformPool, limiter),
+                new CompletableFutureBatchEngine(executor, limiter, 4, 64),
+                new ReactorBatchEngine(executor, limiter, 4, 64)),
+            executor, scheduler, new CancellationStats(), retryPolicy, new DownstreamTargets(64), metrics,
+            limiter, adaptiveLimit, breakers, hedgePolicy, coalescer,
+            new BatchCallRunner(client, executor, limiter, retryPolicy, adaptiveLimit, metrics, 4),
+            engine, callMode, 200);
+        request = new ProcessRequest(count, batch, ioDelayMs, slowIo.url());
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        executor.shutdownNow();
+        platformPool.shutdownNow();
+        scheduler.shutdownNow();
+        slowIo.close();
+    }
+
+    @Benchmark
+    public ProcessResponse processEvents() {
+        return processor.processEvents(request);
+    }
+}
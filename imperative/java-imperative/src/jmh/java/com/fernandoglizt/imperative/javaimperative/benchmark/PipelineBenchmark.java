@@ -0,0 +1,106 @@
+package com.fernandoglizt.imperative.javaimperative.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fernandoglizt.imperative.javaimperative.model.LatencySummary;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
+import com.fernandoglizt.imperative.javaimperative.service.BatchRange;
+import com.fernandoglizt.imperative.javaimperative.service.DownstreamTargets;
+import com.fernandoglizt.imperative.javaimperative.service.LatencyRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.URI;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * CPU-side stages of a run without any downstream call: the range -> map -> filter -> batch -> reduce
+ * pipeline (a materialized list cut into sublists as a baseline against the BatchRange walk the
+ * engines do), batch creation, target URL resolution and the response summary, built and serialized.
+ */
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+
+    private static final String DOWNSTREAM_URL = "http://slow-io:8080/slow";
+
+    @Param({"10000"})
+    private int count;
+
+    @Param({"100", "1000"})
+    private int batch;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final LatencyRecorder latency = new LatencyRecorder();
+    private DownstreamTargets targets;
+    private ProcessRequest request;
+    private int nextDelay;
+
+    @Setup
+    public void setUp() {
+        targets = new DownstreamTargets(64);
+        request = new ProcessRequest(count, batch, 50, DOWNSTREAM_URL);
+        for (int i = 0; i < 10_000; i++) {
+            latency.recordNanos(1_000_000L + i * 1_000L);
+        }
+    }
+
+    @Benchmark
+    public long materializedPipeline() {
+        List<Integer> items = IntStream.rangeClosed(1, count)
+            .map(i -> i * 2)
+            .filter(i -> i % 2 == 0)
+            .boxed()
+            .toList();
+        long total = 0;
+        for (int from = 0; from < items.size(); from += batch) {
+            total += items.subList(from, Math.min(from + batch, items.size())).size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long batchRangePipeline() {
+        long total = 0;
+        for (BatchRange range : BatchRange.of(count, batch)) {
+            for (int i = range.start(); i < range.end(); i++) {
+                int item = i * 2;
+                if (item % 2 == 0) {
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void batchCreation(Blackhole blackhole) {
+        for (BatchRange range : BatchRange.of(count, batch)) {
+            blackhole.consume(range);
+        }
+    }
+
+    @Benchmark
+    public URI resolveCachedTarget() {
+        return targets.resolve(DOWNSTREAM_URL, 50);
+    }
+
+    // 1024 distinct delays over a 64-entry cache: every call builds and parses the URL
+    @Benchmark
+    public URI resolveUncachedTarget() {
+        nextDelay = (nextDelay + 1) & 1023;
+        return targets.resolve(DOWNSTREAM_URL, nextDelay);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeResponse() throws Exception {
+        LatencySummary summary = latency.summary();
+        ProcessResponse response = ProcessResponse.success(request, count, BatchRange.countFor(count, batch),
+            count, 0, 1_000, 12.5, 40.0, 0, 0, 0, 0, null, summary, summary, "executor", "bench");
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,123 @@
+package com.fernandoglizt.imperative.javaimperative.benchmark;
+
+import com.fernandoglizt.imperative.javaimperative.client.BatchReply;
+import com.fernandoglizt.imperative.javaimperative.client.DownstreamClient;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
+import com.fernandoglizt.imperative.javaimperative.service.AdaptiveLimit;
+import com.fernandoglizt.imperative.javaimperative.service.BatchCallRunner;
+import com.fernandoglizt.imperative.javaimperative.service.CallCoalescer;
+import com.fernandoglizt.imperative.javaimperative.service.CancellationStats;
+import com.fernandoglizt.imperative.javaimperative.service.CircuitBreakers;
+import com.fernandoglizt.imperative.javaimperative.service.CompletableFutureBatchEngine;
+import com.fernandoglizt.imperative.javaimperative.service.DownstreamTargets;
+import com.fernandoglizt.imperative.javaimperative.service.ExecutorBatchEngine;
+import com.fernandoglizt.imperative.javaimperative.service.HedgePolicy;
+import com.fernandoglizt.imperative.javaimperative.service.ImperativeProcessor;
+import com.fernandoglizt.imperative.javaimperative.service.InflightLimiter;
+import com.fernandoglizt.imperative.javaimperative.service.ProcessMetrics;
+import com.fernandoglizt.imperative.javaimperative.service.ReactorBatchEngine;
+import com.fernandoglizt.imperative.javaimperative.service.RetryPolicy;
+import com.fernandoglizt.imperative.javaimperative.service.StructuredBatchEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Full {@link ImperativeProcessor#processEvents} against an in-process downstream client that answers
+ * 2xx at once (no socket), once per engine and call mode, so the score is the pipeline's own cost per
+ * run: limiter, engine scheduling, retry and breaker bookkeeping, latency histograms and the summary.
+ */
+@State(Scope.Benchmark)
+public class ProcessEventsBenchmark {
+
+    @Param({"10000"})
+    private int count;
+
+    @Param({"100"})
+    private int batch;
+
+    @Param({"executor", "structured", "platform", "completable-future", "reactor"})
+    private String engine;
+
+    // batch: one POST per batch through BatchCallRunner, which bypasses the engines, so each engine scores the same there
+    @Param({"item", "batch"})
+    private String callMode;
+
+    private ExecutorService executor;
+    private ExecutorService platformPool;
+    private ScheduledExecutorService scheduler;
+    private ImperativeProcessor processor;
+    private ProcessRequest request;
+
+    @Setup
+    public void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        platformPool = Executors.newFixedThreadPool(128);
+        scheduler = new ScheduledThreadPoolExecutor(1);
+
+        DownstreamClient client = new ImmediateDownstreamClient();
+        InflightLimiter limiter = new InflightLimiter(128, 4, 64);
+        RetryPolicy retryPolicy = new RetryPolicy(1, 100, 300, 0.1, 100);
+        AdaptiveLimit adaptiveLimit = new AdaptiveLimit("fixed", 128, 8, 1024, 1000);
+        CircuitBreakers breakers = new CircuitBreakers(true, 100, 20, 50, 1000, 80, 5000, 5);
+        HedgePolicy hedgePolicy = new HedgePolicy(false, 0, 5, 100);
+        CallCoalescer coalescer = new CallCoalescer(1000, 1024);
+        ProcessMetrics metrics = new ProcessMetrics(new SimpleMeterRegistry(), retryPolicy, limiter, breakers,
+            hedgePolicy, coalescer);
+
+        processor = new ImperativeProcessor(client,
+            List.of(
+                new ExecutorBatchEngine(executor, limiter),
+                new StructuredBatchEngine(limiter, 4, 64),
+                new ExecutorBatchEngine("platform", platformPool, limiter),
+                new CompletableFutureBatchEngine(executor, limiter, 4, 64),
+                new ReactorBatchEngine(executor, limiter, 4, 64)),
+            executor, scheduler, new CancellationStats(), retryPolicy, new DownstreamTargets(64), metrics,
+            limiter, adaptiveLimit, breakers, hedgePolicy, coalescer,
+            new BatchCallRunner(client, executor, limiter, retryPolicy, adaptiveLimit, metrics, 4),
+            engine, callMode, 200);
+        request = new ProcessRequest(count, batch, 0, "http://slow-io:8080/slow");
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        platformPool.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public ProcessResponse processEvents() {
+        return processor.processEvents(request);
+    }
+
+    private static final class ImmediateDownstreamClient implements DownstreamClient {
+
+        @Override
+        public boolean get(URI uri) {
+            return true;
+        }
+
+        @Override
+        public BatchReply postBatch(URI uri, int startId, int endId) {
+            return new BatchReply(true, new int[0]);
+        }
+
+        @Override
+        public String name() {
+            return "in-process";
+        }
+    }
+}
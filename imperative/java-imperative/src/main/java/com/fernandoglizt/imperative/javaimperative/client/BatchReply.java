@@ -0,0 +1,40 @@
+package com.fernandoglizt.imperative.javaimperative.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answer of slow-io POST /slow/batch: whether it was 2xx and, if so, the ids of the items that
+ * failed. Every other item of the batch succeeded.
+ */
+public record BatchReply(boolean ok, int[] failed) {
+
+    public static final BatchReply FAILED = new BatchReply(false, new int[0]);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // {"ids":[startId, ..., endId - 1]}
+    static byte[] requestBody(int startId, int endId) {
+        StringBuilder body = new StringBuilder(16 + (endId - startId) * 7).append("{\"ids\":[");
+        for (int id = startId; id < endId; id++) {
+            if (id > startId) {
+                body.append(',');
+            }
+            body.append(id);
+        }
+        return body.append("]}").toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Only the "failed" array of a 2xx body is read
+    static BatchReply parse(byte[] body) throws IOException {
+        JsonNode failed = JSON.readTree(body).path("failed");
+        int[] ids = new int[failed.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = failed.get(i).asInt();
+        }
+        return new BatchReply(true, ids);
+    }
+}
@@ -0,0 +1,21 @@
+package com.fernandoglizt.imperative.javaimperative.client;
+
+import java.net.URI;
+
+/**
+ * Blocking GET against the downstream (slow-io). Implementations must not decode the body:
+ * only the status matters. Returns whether the downstream answered 2xx; connection errors
+ * and timeouts are thrown so the caller can apply the retry policy.
+ */
+public interface DownstreamClient {
+
+    boolean get(URI uri) throws Exception;
+
+    /**
+     * POST of the item ids [startId, endId) to slow-io's /slow/batch (CALL_MODE=batch). Same
+     * status and error rules as {@link #get(URI)}; the body is decoded only for the failed ids.
+     */
+    BatchReply postBatch(URI uri, int startId, int endId) throws Exception;
+
+    String name();
+}
@@ -0,0 +1,82 @@
+package com.fernandoglizt.imperative.javaimperative.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * java.net.http client sharing one keep-alive connection pool. Bodies are discarded
+ * without being buffered, and concurrent requests per host are capped so the pool
+ * never opens more than {@code maxConnectionsPerHost} sockets to the same downstream.
+ */
+public class JdkHttpDownstreamClient implements DownstreamClient, AutoCloseable {
+
+    private final HttpClient httpClient;
+    private final Duration timeout;
+    private final int maxConnectionsPerHost;
+    private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    public JdkHttpDownstreamClient(Duration timeout, int maxConnectionsPerHost) {
+        if (maxConnectionsPerHost <= 0) {
+            throw new IllegalArgumentException("max-connections-per-host must be > 0");
+        }
+        this.timeout = timeout;
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    }
+
+    @Override
+    public boolean get(URI uri) throws IOException, InterruptedException {
+        Semaphore permits = hostPermits.computeIfAbsent(
+            uri.getAuthority(), host -> new Semaphore(maxConnectionsPerHost, true));
+        permits.acquire();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .GET()
+                .build();
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status >= 200 && status < 300;
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public BatchReply postBatch(URI uri, int startId, int endId) throws IOException, InterruptedException {
+        Semaphore permits = hostPermits.computeIfAbsent(
+            uri.getAuthority(), host -> new Semaphore(maxConnectionsPerHost, true));
+        permits.acquire();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(BatchReply.requestBody(startId, endId)))
+                .build();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            int status = response.statusCode();
+            return status >= 200 && status < 300 ? BatchReply.parse(response.body()) : BatchReply.FAILED;
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public String name() {
+        return "jdk";
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.fernandoglizt.imperative.javaimperative.client;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Original client: RestTemplate on the default HttpURLConnection factory.
+ * Kept selectable (DOWNSTREAM_CLIENT=rest-template) as the comparison baseline.
+ */
+public class RestTemplateDownstreamClient implements DownstreamClient {
+
+    private final RestTemplate restTemplate;
+
+    public RestTemplateDownstreamClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public boolean get(URI uri) {
+        // Non-2xx responses are raised by the default error handler
+        restTemplate.getForObject(uri, String.class);
+        return true;
+    }
+
+    @Override
+    public BatchReply postBatch(URI uri, int startId, int endId) throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = restTemplate.postForObject(
+            uri, new HttpEntity<>(BatchReply.requestBody(startId, endId), headers), byte[].class);
+        return BatchReply.parse(body == null ? new byte[0] : body);
+    }
+
+    @Override
+    public String name() {
+        return "rest-template";
+    }
+}
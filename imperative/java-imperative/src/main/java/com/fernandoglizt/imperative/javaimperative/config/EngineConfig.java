@@ -0,0 +1,34 @@
+package com.fernandoglizt.imperative.javaimperative.config;
+
+import com.fernandoglizt.imperative.javaimperative.service.BatchEngine;
+import com.fernandoglizt.imperative.javaimperative.service.ExecutorBatchEngine;
+import com.fernandoglizt.imperative.javaimperative.service.InflightLimiter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class EngineConfig {
+
+    @Bean
+    public ExecutorService platformExecutor(@Value("${app.executor.platform-threads:128}") int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("platform-threads must be > 0");
+        }
+        // Classic fixed pool: with the limiter above PLATFORM_THREADS, admitted calls queue here for a thread
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            Thread.ofPlatform().name("engine-platform-", 0).daemon(true).factory());
+    }
+
+    @Bean
+    public BatchEngine platformBatchEngine(@Qualifier("platformExecutor") ExecutorService platformExecutor,
+                                           InflightLimiter limiter) {
+        return new ExecutorBatchEngine("platform", platformExecutor, limiter);
+    }
+}
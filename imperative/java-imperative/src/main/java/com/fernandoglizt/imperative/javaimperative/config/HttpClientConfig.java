@@ -1,14 +1,20 @@
 package com.fernandoglizt.imperative.javaimperative.config;
 
+import com.fernandoglizt.imperative.javaimperative.client.DownstreamClient;
+import com.fernandoglizt.imperative.javaimperative.client.JdkHttpDownstreamClient;
+import com.fernandoglizt.imperative.javaimperative.client.RestTemplateDownstreamClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 @Configuration
 public class HttpClientConfig {
@@ -16,8 +22,11 @@ public class HttpClientConfig {
     @Value("${app.downstream.timeout-ms:2000}")
     private int timeoutMs;
 
-    @Value("${app.executor.pool-size:128}")
-    private int poolSize;
+    @Value("${app.downstream.client:jdk}")
+    private String client;
+
+    @Value("${app.downstream.max-connections-per-host:128}")
+    private int maxConnectionsPerHost;
 
     @Bean
     public RestTemplate restTemplate(RestTemplateBuilder builder) {
@@ -28,9 +37,32 @@ public class HttpClientConfig {
     }
 
     @Bean
+    public DownstreamClient downstreamClient(RestTemplate restTemplate) {
+        return switch (client) {
+            case "jdk" -> new JdkHttpDownstreamClient(Duration.ofMillis(timeoutMs), maxConnectionsPerHost);
+            case "rest-template" -> new RestTemplateDownstreamClient(restTemplate);
+            default -> throw new IllegalArgumentException(
+                "Unknown app.downstream.client: " + client + " (expected jdk or rest-template)");
+        };
+    }
+
+    @Bean
+    @Primary
     public ExecutorService executorService() {
-        // Use Virtual Threads (Java 21+) for better scalability
+        // Use Virtual Threads (Java 21+) for better scalability.
+        // Concurrency is bounded by InflightLimiter (POOL_SIZE), not by the executor.
         return Executors.newVirtualThreadPerTaskExecutor();
     }
-}
 
+    @Bean
+    public ScheduledExecutorService scheduledExecutorService() {
+        // Timers only (deadlines, retry backoff); tasks must hand real work off to the executor
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform()
+            .name("scheduler")
+            .daemon(true)
+            .factory());
+        // Watchdogs are cancelled on almost every run; don't leave them queued until they expire
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
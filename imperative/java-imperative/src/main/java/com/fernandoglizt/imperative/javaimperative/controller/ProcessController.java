@@ -1,21 +1,57 @@
 package com.fernandoglizt.imperative.javaimperative.controller;
 
+import com.fernandoglizt.imperative.javaimperative.client.DownstreamClient;
+import com.fernandoglizt.imperative.javaimperative.model.JobStatus;
 import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
 import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
+import com.fernandoglizt.imperative.javaimperative.service.AdaptiveLimit;
+import com.fernandoglizt.imperative.javaimperative.service.CallCoalescer;
+import com.fernandoglizt.imperative.javaimperative.service.CancellationStats;
+import com.fernandoglizt.imperative.javaimperative.service.CircuitBreakers;
+import com.fernandoglizt.imperative.javaimperative.service.HedgePolicy;
 import com.fernandoglizt.imperative.javaimperative.service.ImperativeProcessor;
+import com.fernandoglizt.imperative.javaimperative.service.InflightLimiter;
+import com.fernandoglizt.imperative.javaimperative.service.JobRegistry;
+import com.fernandoglizt.imperative.javaimperative.service.ProcessRun;
+import com.fernandoglizt.imperative.javaimperative.service.RetryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.net.InetAddress;
+import java.net.URI;
 import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 public class ProcessController {
 
+    private static final Logger log = LoggerFactory.getLogger(ProcessController.class);
+
+    // How long past PROCESS_TIMEOUT_MS /process waits for a cancelled run to drain and report
+    private static final long DEADLINE_GRACE_MS = 5_000;
+
     private final ImperativeProcessor processor;
+    private final InflightLimiter limiter;
+    private final DownstreamClient downstreamClient;
+    private final CancellationStats cancellationStats;
+    private final RetryPolicy retryPolicy;
+    private final AdaptiveLimit adaptiveLimit;
+    private final CircuitBreakers circuitBreakers;
+    private final HedgePolicy hedgePolicy;
+    private final CallCoalescer coalescer;
+    private final JobRegistry jobs;
 
     @Value("${app.max-count:200000}")
     private int maxCount;
@@ -23,33 +59,238 @@ public class ProcessController {
     @Value("${app.version:1.0.0}")
     private String version;
 
-    public ProcessController(ImperativeProcessor processor) {
+    public ProcessController(ImperativeProcessor processor, InflightLimiter limiter,
+                             DownstreamClient downstreamClient, CancellationStats cancellationStats,
+                             RetryPolicy retryPolicy, AdaptiveLimit adaptiveLimit,
+                             CircuitBreakers circuitBreakers, HedgePolicy hedgePolicy,
+                             CallCoalescer coalescer, JobRegistry jobs) {
         this.processor = processor;
+        this.limiter = limiter;
+        this.downstreamClient = downstreamClient;
+        this.cancellationStats = cancellationStats;
+        this.retryPolicy = retryPolicy;
+        this.adaptiveLimit = adaptiveLimit;
+        this.circuitBreakers = circuitBreakers;
+        this.hedgePolicy = hedgePolicy;
+        this.coalescer = coalescer;
+        this.jobs = jobs;
     }
 
     @PostMapping("/process")
-    public ResponseEntity<?> process(@RequestBody ProcessRequest request) {
+    public DeferredResult<ResponseEntity<?>> process(@RequestBody ProcessRequest request) {
+        // The container thread is released on return. The run's own watchdog enforces PROCESS_TIMEOUT_MS and
+        // answers with the partial summary; the async wait only backstops a run that fails to drain (-1: none)
+        long timeoutMs = processor.timeoutMs();
+        DeferredResult<ResponseEntity<?>> result =
+            new DeferredResult<>(timeoutMs > 0 ? timeoutMs + DEADLINE_GRACE_MS : -1L);
+
         if (request.count() > maxCount) {
-            return ResponseEntity.badRequest()
+            result.setResult(ResponseEntity.badRequest()
                 .body(Map.of(
                     "error", "count exceeds maximum allowed",
                     "max_count", maxCount,
                     "requested", request.count()
-                ));
+                )));
+            return result;
+        }
+        if (!processor.supportsEngine(request.engine())) {
+            result.setResult(ResponseEntity.badRequest().body(unknownEngine(request)));
+            return result;
         }
 
+        ProcessRun run = processor.newRun(request);
+        // Registered before the run starts, so a disconnect is never missed
+        result.onTimeout(() -> {
+            run.cancel("deadline");
+            result.setResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(Map.of("error", "processing timed out, in-flight calls cancelled")));
+        });
+        result.onError(error -> {
+            log.warn("Client gone, cancelling run: {}", error.toString());
+            run.cancel("disconnect");
+        });
+
+        try {
+            processor.processAsync(run).whenComplete((response, error) -> {
+                if (error != null) {
+                    result.setResult(errorResponse(error));
+                } else if ("deadline".equals(response.cancelled())) {
+                    result.setResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response));
+                } else {
+                    result.setResult(ResponseEntity.ok(response));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage())));
+        }
+        return result;
+    }
+
+    // One JSON object per line: a BatchResult per finished batch, then the ProcessResponse summary
+    @PostMapping(value = "/process/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> processNdjson(@RequestBody ProcessRequest request) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(-1L);
+        return stream(request, emitter, (event, payload) -> {
+            emitter.send(payload, MediaType.APPLICATION_JSON);
+            emitter.send("\n", MediaType.TEXT_PLAIN);
+        });
+    }
+
+    // Same stream as Server-Sent Events named batch / summary / error
+    @PostMapping(value = "/process/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> processSse(@RequestBody ProcessRequest request) {
+        SseEmitter emitter = new SseEmitter(-1L);
+        return stream(request, emitter, (event, payload) ->
+            emitter.send(SseEmitter.event().name(event).data(payload, MediaType.APPLICATION_JSON)));
+    }
+
+    @FunctionalInterface
+    private interface StreamWriter {
+        void write(String event, Object payload) throws IOException;
+    }
+
+    /**
+     * Writes go straight to the response from the thread that finished the batch, so a slow
+     * reader blocks that worker and holds back new downstream calls. PROCESS_TIMEOUT_MS is
+     * enforced by the run itself; the summary then reports cancelled=deadline.
+     */
+    private ResponseEntity<ResponseBodyEmitter> stream(ProcessRequest request, ResponseBodyEmitter emitter,
+                                                       StreamWriter writer) {
+        if (request.count() > maxCount) {
+            return rejected(emitter, writer, HttpStatus.BAD_REQUEST, Map.of(
+                "error", "count exceeds maximum allowed",
+                "max_count", maxCount,
+                "requested", request.count()
+            ));
+        }
+        if (!processor.supportsEngine(request.engine())) {
+            return rejected(emitter, writer, HttpStatus.BAD_REQUEST, unknownEngine(request));
+        }
+
+        ProcessRun run = processor.newRun(request);
+        run.onBatchDone(batch -> emit(emitter, writer, run, "batch", batch));
+        try {
+            processor.processAsync(run).whenComplete((response, error) -> {
+                if (error != null) {
+                    emit(emitter, writer, run, "error", errorResponse(error).getBody());
+                } else {
+                    emit(emitter, writer, run, "summary", response);
+                }
+                emitter.complete();
+            });
+        } catch (RejectedExecutionException e) {
+            return rejected(emitter, writer, HttpStatus.SERVICE_UNAVAILABLE, Map.of("error", e.getMessage()));
+        }
+
+        emitter.onError(error -> {
+            log.warn("Stream client gone, cancelling run: {}", error.toString());
+            run.cancel("disconnect");
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static void emit(ResponseBodyEmitter emitter, StreamWriter writer, ProcessRun run,
+                             String event, Object payload) {
+        // Batches finish on many threads; keep each event's writes together
+        synchronized (emitter) {
+            try {
+                writer.write(event, payload);
+            } catch (IOException | IllegalStateException e) {
+                run.cancel("disconnect");
+            }
+        }
+    }
+
+    private static ResponseEntity<ResponseBodyEmitter> rejected(ResponseBodyEmitter emitter, StreamWriter writer,
+                                                                HttpStatus status, Map<String, Object> body) {
         try {
-            ProcessResponse response = processor.processEvents(request);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
+            writer.write("error", body);
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (status == HttpStatus.SERVICE_UNAVAILABLE) {
+            builder.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return builder.body(emitter);
+    }
+
+    // Same run as /process without holding the connection; poll GET /jobs/{id} for progress and the result
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(@RequestBody ProcessRequest request) {
+        if (request.count() > maxCount) {
             return ResponseEntity.badRequest()
+                .body(Map.of(
+                    "error", "count exceeds maximum allowed",
+                    "max_count", maxCount,
+                    "requested", request.count()
+                ));
+        }
+        if (!processor.supportsEngine(request.engine())) {
+            return ResponseEntity.badRequest().body(unknownEngine(request));
+        }
+        try {
+            JobRegistry.Job job = jobs.submit(request);
+            return ResponseEntity.accepted()
+                .location(URI.create("/jobs/" + job.id()))
+                .body(job.status());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
                 .body(Map.of("error", e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "Internal server error: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getJob(@PathVariable String id) {
+        JobRegistry.Job job = jobs.get(id);
+        if (job == null) {
+            return jobNotFound(id);
+        }
+        return ResponseEntity.ok(job.status());
+    }
+
+    // Running: cancelled (202), the entry stays until it expires. Finished: removed (200)
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<?> cancelJob(@PathVariable String id) {
+        JobRegistry.Job job = jobs.cancel(id);
+        if (job == null) {
+            return jobNotFound(id);
+        }
+        JobStatus status = job.status();
+        return job.state() == JobRegistry.State.RUNNING
+            ? ResponseEntity.accepted().body(status)
+            : ResponseEntity.ok(status);
+    }
+
+    private static ResponseEntity<?> jobNotFound(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(Map.of("error", "job not found", "id", id));
+    }
+
+    private Map<String, Object> unknownEngine(ProcessRequest request) {
+        return Map.of(
+            "error", "unknown engine",
+            "requested", request.engine(),
+            "engines", processor.engines()
+        );
+    }
+
+    private ResponseEntity<?> errorResponse(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause()
+            : error;
+        if (cause instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", cause.getMessage()));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(Map.of("error", "Internal server error: " + cause.getMessage()));
+    }
+
     @GetMapping("/healthz")
     public ResponseEntity<Map<String, Object>> health() {
         return ResponseEntity.ok(Map.of(
@@ -63,13 +304,23 @@ public class ProcessController {
         String hostname = getHostname();
         String javaVersion = System.getProperty("java.version");
         
-        return ResponseEntity.ok(Map.of(
-            "name", "java-imperative",
-            "version", version,
-            "javaVersion", javaVersion,
-            "maxCount", maxCount,
-            "node", hostname,
-            "notes", "Imperative blocking implementation with ExecutorService"
+        return ResponseEntity.ok(Map.ofEntries(
+            Map.entry("name", "java-imperative"),
+            Map.entry("version", version),
+            Map.entry("javaVersion", javaVersion),
+            Map.entry("maxCount", maxCount),
+            Map.entry("node", hostname),
+            Map.entry("limiter", limiter.snapshot()),
+            Map.entry("adaptiveLimit", adaptiveLimit.snapshot()),
+            Map.entry("downstreamClient", downstreamClient.name()),
+            Map.entry("processor", processor.snapshot()),
+            Map.entry("cancellation", cancellationStats.snapshot()),
+            Map.entry("retry", retryPolicy.snapshot()),
+            Map.entry("circuitBreaker", circuitBreakers.snapshot()),
+            Map.entry("hedge", hedgePolicy.snapshot()),
+            Map.entry("coalescing", coalescer.snapshot()),
+            Map.entry("jobs", jobs.snapshot()),
+            Map.entry("notes", "Imperative blocking implementation with ExecutorService")
         ));
     }
 
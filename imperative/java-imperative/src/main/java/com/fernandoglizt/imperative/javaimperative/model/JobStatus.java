@@ -0,0 +1,24 @@
+package com.fernandoglizt.imperative.javaimperative.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * Body of the /jobs endpoints. The counters are live while the job runs; result holds the
+ * final ProcessResponse once it has finished (also when cancelled), error only when it failed.
+ */
+public record JobStatus(
+    String id,
+    String state,
+    @JsonProperty("submitted_at") Instant submittedAt,
+    @JsonInclude(JsonInclude.Include.NON_NULL) @JsonProperty("finished_at") Instant finishedAt,
+    int count,
+    @JsonProperty("processed_events") int processedEvents,
+    @JsonProperty("external_calls_ok") int externalCallsOk,
+    @JsonProperty("external_calls_fail") int externalCallsFail,
+    @JsonInclude(JsonInclude.Include.NON_NULL) ProcessResponse result,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String error
+) {
+}
@@ -0,0 +1,15 @@
+package com.fernandoglizt.imperative.javaimperative.model;
+
+/**
+ * Latency percentiles of one run, in milliseconds.
+ */
+public record LatencySummary(
+    long count,
+    double p50,
+    double p90,
+    double p95,
+    double p99,
+    double p999,
+    double max
+) {
+}
@@ -4,7 +4,11 @@ public record ProcessRequest(
     int count,
     int batch,
     int ioDelayMs,
-    String downstreamUrl
+    String downstreamUrl,
+    // Opt-in: share in-flight calls and cached successes with identical calls (idempotent downstreams only)
+    boolean coalesce,
+    // Optional BatchEngine name for this run (A/B engines in one JVM); null uses ENGINE
+    String engine
 ) {
     public ProcessRequest {
         if (count <= 0) {
@@ -15,6 +19,14 @@ public record ProcessRequest(
         }
     }
 
+    public ProcessRequest(int count, int batch, int ioDelayMs, String downstreamUrl) {
+        this(count, batch, ioDelayMs, downstreamUrl, false, null);
+    }
+
+    public ProcessRequest(int count, int batch, int ioDelayMs, String downstreamUrl, boolean coalesce) {
+        this(count, batch, ioDelayMs, downstreamUrl, coalesce, null);
+    }
+
     public String getDownstreamUrl() {
         return downstreamUrl != null && !downstreamUrl.isBlank() 
             ? downstreamUrl 
@@ -1,5 +1,6 @@
 package com.fernandoglizt.imperative.javaimperative.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
 
@@ -15,6 +16,16 @@ public record ProcessResponse(
     @JsonProperty("external_calls_fail") int externalCallsFail,
     @JsonProperty("duration_ms") long durationMs,
     @JsonProperty("events_per_sec") double eventsPerSec,
+    @JsonProperty("batch_duration_ms_avg") double batchDurationMsAvg,
+    @JsonProperty("batch_duration_ms_max") double batchDurationMsMax,
+    @JsonProperty("calls_avoided") int callsAvoided,
+    @JsonProperty("calls_fast_failed") int callsFastFailed,
+    @JsonProperty("hedges_sent") int hedgesSent,
+    @JsonProperty("hedges_won") int hedgesWon,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String cancelled,
+    @JsonProperty("latency_first_attempt_ms") LatencySummary latencyFirstAttemptMs,
+    @JsonProperty("latency_with_retries_ms") LatencySummary latencyWithRetriesMs,
+    String engine,
     Instant ts,
     String node,
     String notes
@@ -26,12 +37,22 @@ public record ProcessResponse(
         int externalCallsOk,
         int externalCallsFail,
         long durationMs,
+        double batchDurationMsAvg,
+        double batchDurationMsMax,
+        int callsAvoided,
+        int callsFastFailed,
+        int hedgesSent,
+        int hedgesWon,
+        String cancelled,
+        LatencySummary latencyFirstAttempt,
+        LatencySummary latencyWithRetries,
+        String engine,
         String hostname
     ) {
         double eventsPerSec = durationMs > 0 ? (processedEvents * 1000.0 / durationMs) : 0.0;
         
         return new ProcessResponse(
-            true,
+            cancelled == null,
             request.count(),
             request.batch(),
             request.getIoDelayMs(),
@@ -42,6 +63,16 @@ public record ProcessResponse(
             externalCallsFail,
             durationMs,
             eventsPerSec,
+            batchDurationMsAvg,
+            batchDurationMsMax,
+            callsAvoided,
+            callsFastFailed,
+            hedgesSent,
+            hedgesWon,
+            cancelled,
+            latencyFirstAttempt,
+            latencyWithRetries,
+            engine,
             Instant.now(),
             hostname,
             "imperative blocking with Virtual Threads (Java 21)"
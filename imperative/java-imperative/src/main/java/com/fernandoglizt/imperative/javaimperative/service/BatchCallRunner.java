@@ -0,0 +1,179 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.client.BatchReply;
+import com.fernandoglizt.imperative.javaimperative.client.DownstreamClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * CALL_MODE=batch: one POST /slow/batch per batch instead of one GET per item. At most
+ * BATCH_CONCURRENCY batch requests of a run are in flight, each holding one limiter slot.
+ * slow-io answers with the ids that failed, so per-item ok/fail accounting is unchanged;
+ * retries, the circuit breaker and the latency histograms apply per batch request.
+ */
+@Component
+public class BatchCallRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchCallRunner.class);
+
+    private final DownstreamClient downstreamClient;
+    private final ExecutorService executorService;
+    private final InflightLimiter limiter;
+    private final RetryPolicy retryPolicy;
+    private final AdaptiveLimit adaptiveLimit;
+    private final ProcessMetrics metrics;
+    private final int batchConcurrency;
+
+    public BatchCallRunner(DownstreamClient downstreamClient, ExecutorService executorService,
+                           InflightLimiter limiter, RetryPolicy retryPolicy, AdaptiveLimit adaptiveLimit,
+                           ProcessMetrics metrics,
+                           @Value("${app.executor.batch-concurrency:4}") int batchConcurrency) {
+        this.downstreamClient = downstreamClient;
+        this.executorService = executorService;
+        this.limiter = limiter;
+        this.retryPolicy = retryPolicy;
+        this.adaptiveLimit = adaptiveLimit;
+        this.metrics = metrics;
+        this.batchConcurrency = batchConcurrency;
+    }
+
+    public String name() {
+        return "batch-call";
+    }
+
+    public void run(ProcessRun run, URI target, CircuitBreakers.Breaker breaker) {
+        InflightLimiter.RequestPermits permits = limiter.forRequest();
+        Semaphore batchSlots = new Semaphore(batchConcurrency);
+
+        try {
+            for (BatchRange range : run.batches()) {
+                if (run.isCancelled()) {
+                    break;
+                }
+                batchSlots.acquire();
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    batchSlots.release();
+                    throw e;
+                }
+                ProcessRun.Batch batch = run.startBatch(range);
+                try {
+                    executorService.execute(() -> {
+                        try {
+                            send(run, batch, target, breaker);
+                        } finally {
+                            permits.release();
+                            batchSlots.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    batchSlots.release();
+                    batch.seal();
+                    throw e;
+                }
+            }
+        } catch (InterruptedException e) {
+            run.cancel("interrupted");
+        }
+
+        // In-flight batch requests of a cancelled run are interrupted, so draining stays short
+        while (true) {
+            try {
+                permits.awaitIdle();
+                return;
+            } catch (InterruptedException e) {
+                run.cancel("interrupted");
+            }
+        }
+    }
+
+    private void send(ProcessRun run, ProcessRun.Batch batch, URI target, CircuitBreakers.Breaker breaker) {
+        BatchRange range = batch.range();
+        int items = range.length();
+        for (int i = 0; i < items; i++) {
+            batch.itemStarted();
+        }
+        batch.seal();
+
+        int failed = items;
+        run.attach();
+        try {
+            BatchReply reply = call(run, range, target, breaker);
+            if (reply.ok()) {
+                failed = Math.min(items, reply.failed().length);
+            }
+        } finally {
+            run.detach();
+            Thread.interrupted();
+            for (int i = 0; i < items; i++) {
+                batch.itemDone(i >= failed);
+            }
+        }
+    }
+
+    // Blocking retries are fine here: a handful of batch requests park virtual threads, not items
+    private BatchReply call(ProcessRun run, BatchRange range, URI target, CircuitBreakers.Breaker breaker) {
+        long callStart = System.nanoTime();
+        retryPolicy.onCall();
+
+        for (int attempt = 0; ; attempt++) {
+            if (run.isCancelled()) {
+                return BatchReply.FAILED;
+            }
+            if (!breaker.tryAcquire()) {
+                for (int i = range.start(); i < range.end(); i++) {
+                    run.callFastFailed();
+                }
+                run.callLatency().recordNanos(System.nanoTime() - callStart);
+                return BatchReply.FAILED;
+            }
+
+            long start = System.nanoTime();
+            BatchReply reply = BatchReply.FAILED;
+            try {
+                reply = downstreamClient.postBatch(target, range.start(), range.end());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.debug("Batch call failed (batch {}, attempt {}): {}", range.index(), attempt + 1, e.toString());
+            }
+            long rtt = System.nanoTime() - start;
+            if (run.isCancelled()) {
+                breaker.onCancelled();
+                return BatchReply.FAILED;
+            }
+            breaker.onResult(rtt, reply.ok());
+            adaptiveLimit.onSample(rtt, limiter.inflight(), !reply.ok());
+            metrics.recordCall(start, reply.ok());
+            if (attempt == 0) {
+                run.firstAttemptLatency().recordNanos(rtt);
+            }
+
+            if (reply.ok()) {
+                if (attempt > 0) {
+                    retryPolicy.onRetrySucceeded();
+                }
+                run.callLatency().recordNanos(System.nanoTime() - callStart);
+                return reply;
+            }
+            if (!retryPolicy.tryRetry(attempt)) {
+                run.callLatency().recordNanos(System.nanoTime() - callStart);
+                return reply;
+            }
+            try {
+                Thread.sleep(retryPolicy.backoffMillis(attempt));
+            } catch (InterruptedException e) {
+                return BatchReply.FAILED;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Strategy that drives the batch -> call stages of a run: walks the batches of
+ * {@link ProcessRun#batches()}, applies map/filter per item, invokes the downstream
+ * call and reports progress back to the run. Returns once every started call is done.
+ */
+public interface BatchEngine {
+
+    void run(ProcessRun run, DownstreamCall call) throws InterruptedException;
+
+    String name();
+
+    /**
+     * Where a call's follow-up work runs once it leaves the engine's thread: retries and
+     * coalesced calls. Null means the processor's default (virtual-thread) executor.
+     */
+    default ExecutorService callExecutor() {
+        return null;
+    }
+}
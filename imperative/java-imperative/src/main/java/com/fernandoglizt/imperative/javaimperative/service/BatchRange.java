@@ -0,0 +1,46 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Primitive descriptor of one batch over the source range {@code 1..count}:
+ * positions {@code [start, start + length)}. Batches are generated lazily,
+ * so a run never materializes its items.
+ */
+public record BatchRange(int index, int start, int length) {
+
+    public int end() {
+        return start + length;
+    }
+
+    public static int countFor(int count, int batchSize) {
+        return (count + batchSize - 1) / batchSize;
+    }
+
+    public static Iterable<BatchRange> of(int count, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch must be > 0");
+        }
+        return () -> new Iterator<>() {
+            private int index = 0;
+            private int next = 1;
+
+            @Override
+            public boolean hasNext() {
+                return next <= count;
+            }
+
+            @Override
+            public BatchRange next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int length = Math.min(batchSize, count - next + 1);
+                BatchRange range = new BatchRange(index++, next, length);
+                next += length;
+                return range;
+            }
+        };
+    }
+}
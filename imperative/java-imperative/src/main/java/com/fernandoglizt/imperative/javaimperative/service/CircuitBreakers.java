@@ -0,0 +1,262 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One circuit breaker per downstream host (scheme://host:port), shared by every run. A breaker
+ * opens when, over the last BREAKER_WINDOW_SIZE outcomes (at least BREAKER_MINIMUM_CALLS), the
+ * failure rate or the share of calls slower than BREAKER_SLOW_CALL_MS reaches its threshold.
+ * While open, calls are refused without touching the network; after BREAKER_OPEN_MS up to
+ * BREAKER_HALF_OPEN_PROBES calls are let through and close it again only if all of them succeed.
+ * Off by default (BREAKER_ENABLED=false), like hedging and coalescing.
+ */
+@Component
+public class CircuitBreakers {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int FAILED = 1;
+    private static final int SLOW = 2;
+
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long slowCallNanos;
+    private final int slowCallRatePercent;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+    private final LongAdder fastFailed = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreakers(
+            @Value("${app.breaker.enabled:false}") boolean enabled,
+            @Value("${app.breaker.window-size:100}") int windowSize,
+            @Value("${app.breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${app.breaker.failure-rate-threshold:50}") int failureRatePercent,
+            @Value("${app.breaker.slow-call-ms:1000}") long slowCallMs,
+            @Value("${app.breaker.slow-call-rate-threshold:80}") int slowCallRatePercent,
+            @Value("${app.breaker.open-ms:5000}") long openMs,
+            @Value("${app.breaker.half-open-probes:5}") int halfOpenProbes
+    ) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("breaker window-size must be > 0 and >= minimum-calls > 0");
+        }
+        if (failureRatePercent <= 0 || failureRatePercent > 100 || slowCallRatePercent <= 0 || slowCallRatePercent > 100) {
+            throw new IllegalArgumentException("breaker rate thresholds must be in 1..100");
+        }
+        if (slowCallMs <= 0 || openMs <= 0 || halfOpenProbes <= 0) {
+            throw new IllegalArgumentException("breaker slow-call-ms, open-ms and half-open-probes must be > 0");
+        }
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.slowCallRatePercent = slowCallRatePercent;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public Breaker forTarget(URI target) {
+        return breakers.computeIfAbsent(target.getScheme() + "://" + target.getAuthority(), Breaker::new);
+    }
+
+    public long fastFailed() {
+        return fastFailed.sum();
+    }
+
+    public long timesOpened() {
+        return opened.sum();
+    }
+
+    public int openCount() {
+        int open = 0;
+        for (Breaker breaker : breakers.values()) {
+            if (breaker.state != State.CLOSED) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> hosts = new LinkedHashMap<>();
+        breakers.forEach((host, breaker) -> hosts.put(host, breaker.state.name()));
+        return Map.of(
+            "enabled", enabled,
+            "fast_failed", fastFailed(),
+            "times_opened", timesOpened(),
+            "hosts", hosts
+        );
+    }
+
+    /**
+     * Breaker of one host. While closed, {@link #tryAcquire()} is a volatile read and
+     * {@link #onResult} records into a lock-free {@link Window}; the monitor is taken only to
+     * change state and to count half-open probes. Every permitted call must end in exactly one
+     * {@link #onResult} or {@link #onCancelled()}.
+     */
+    public final class Breaker {
+
+        private final String host;
+        // Replaced on close; outcomes of calls admitted earlier land in the discarded window
+        private volatile Window window = new Window();
+
+        private volatile State state = State.CLOSED;
+        // Guarded by this
+        private long openedAt;
+        private int probesIssued;
+        private int probesInFlight;
+        private int probesOk;
+
+        private Breaker(String host) {
+            this.host = host;
+        }
+
+        public String host() {
+            return host;
+        }
+
+        public State state() {
+            return state;
+        }
+
+        // False means fail fast: the host is open, or half-open with every probe slot taken
+        public boolean tryAcquire() {
+            if (!enabled || state == State.CLOSED) {
+                return true;
+            }
+            synchronized (this) {
+                if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    probesIssued = 0;
+                    probesInFlight = 0;
+                    probesOk = 0;
+                }
+                if (state == State.CLOSED || (state == State.HALF_OPEN && probesIssued < halfOpenProbes)) {
+                    if (state == State.HALF_OPEN) {
+                        probesIssued++;
+                        probesInFlight++;
+                    }
+                    return true;
+                }
+            }
+            fastFailed.increment();
+            return false;
+        }
+
+        public void onResult(long durationNanos, boolean success) {
+            if (!enabled) {
+                return;
+            }
+            int outcome = (success ? 0 : FAILED) | (durationNanos >= slowCallNanos ? SLOW : 0);
+            if (state == State.CLOSED) {
+                Window current = window;
+                if (current.record(outcome)) {
+                    trip(current);
+                }
+                return;
+            }
+            synchronized (this) {
+                switch (state) {
+                    case CLOSED -> {
+                        Window current = window;
+                        if (current.record(outcome)) {
+                            trip(current);
+                        }
+                    }
+                    case HALF_OPEN -> {
+                        probesInFlight = Math.max(0, probesInFlight - 1);
+                        if (outcome != 0) {
+                            open();
+                        } else if (++probesOk >= halfOpenProbes) {
+                            close();
+                        }
+                    }
+                    // Calls admitted before the breaker opened; their outcome no longer matters
+                    case OPEN -> { }
+                }
+            }
+        }
+
+        // A permitted call that never produced an outcome (run cancelled): frees its probe slot
+        public void onCancelled() {
+            if (!enabled || state != State.HALF_OPEN) {
+                return;
+            }
+            synchronized (this) {
+                if (state == State.HALF_OPEN && probesInFlight > 0) {
+                    probesInFlight--;
+                    probesIssued--;
+                }
+            }
+        }
+
+        // Only the first caller to see the threshold crossed in the current window opens the breaker
+        private synchronized void trip(Window tripped) {
+            if (state == State.CLOSED && window == tripped) {
+                open();
+            }
+        }
+
+        private void open() {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            opened.increment();
+        }
+
+        private void close() {
+            window = new Window();
+            state = State.CLOSED;
+        }
+    }
+
+    /**
+     * The last BREAKER_WINDOW_SIZE outcomes as FAILED / SLOW bits. Each call claims the next
+     * slot from a sequence and swaps its outcome in, moving the counters by what it replaced, so
+     * concurrent writers never lose an update and the counters always settle on the ring's
+     * contents. Successful fast calls, the common case, never read the counters.
+     */
+    private final class Window {
+
+        private final AtomicIntegerArray outcomes = new AtomicIntegerArray(windowSize);
+        private final AtomicLong calls = new AtomicLong();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder slowCalls = new LongAdder();
+
+        // True when this outcome leaves the failure or slow-call rate at its threshold
+        boolean record(int outcome) {
+            long seq = calls.getAndIncrement();
+            int evicted = outcomes.getAndSet((int) (seq % windowSize), outcome);
+            if (evicted != outcome) {
+                int failed = (outcome & FAILED) - (evicted & FAILED);
+                if (failed != 0) {
+                    failures.add(failed);
+                }
+                int slow = ((outcome & SLOW) - (evicted & SLOW)) / SLOW;
+                if (slow != 0) {
+                    slowCalls.add(slow);
+                }
+            }
+            if (outcome == 0) {
+                return false;
+            }
+            long size = Math.min(seq + 1, windowSize);
+            return size >= minimumCalls
+                && (failures.sum() * 100 >= failureRatePercent * size || slowCalls.sum() * 100 >= slowCallRatePercent * size);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CompletableFuture engine: BATCH_CONCURRENCY batch chains, each running ITEM_CONCURRENCY item
+ * chains that take the next item, call it and compose the next step once the call completes.
+ * Every step hops to the executor, so no thread is held between steps; threads block only on the
+ * limiter and on the first attempt of a call.
+ */
+@Component
+public class CompletableFutureBatchEngine implements BatchEngine {
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final ExecutorService executorService;
+    private final InflightLimiter limiter;
+    private final int batchConcurrency;
+    private final int itemConcurrency;
+
+    public CompletableFutureBatchEngine(
+            ExecutorService executorService,
+            InflightLimiter limiter,
+            @Value("${app.executor.batch-concurrency:4}") int batchConcurrency,
+            @Value("${app.executor.item-concurrency:64}") int itemConcurrency
+    ) {
+        this.executorService = executorService;
+        this.limiter = limiter;
+        this.batchConcurrency = batchConcurrency;
+        this.itemConcurrency = itemConcurrency;
+    }
+
+    @Override
+    public void run(ProcessRun run, DownstreamCall call) throws InterruptedException {
+        InflightLimiter.RequestPermits permits = limiter.forRequest();
+        Iterator<BatchRange> batches = run.batches().iterator();
+
+        CompletableFuture<?>[] chains = new CompletableFuture<?>[batchConcurrency];
+        for (int i = 0; i < chains.length; i++) {
+            chains[i] = nextBatch(run, batches, permits, call);
+        }
+        CompletableFuture<Void> done = CompletableFuture.allOf(chains);
+
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            // Chains stop at their next step and in-flight calls are interrupted, so this stays short
+            run.cancel("interrupted");
+            done.join();
+        } catch (ExecutionException e) {
+            run.cancel("error");
+            throw new IllegalStateException("engine chain failed", e.getCause());
+        }
+    }
+
+    private CompletableFuture<Void> nextBatch(ProcessRun run, Iterator<BatchRange> batches,
+                                              InflightLimiter.RequestPermits permits, DownstreamCall call) {
+        return CompletableFuture.supplyAsync(() -> startBatch(run, batches), executorService)
+            .thenCompose(batch -> batch == null
+                ? DONE
+                : runBatch(run, batch, permits, call).thenCompose(v -> nextBatch(run, batches, permits, call)));
+    }
+
+    // Null once the run is cancelled or every batch has been taken
+    private static ProcessRun.Batch startBatch(ProcessRun run, Iterator<BatchRange> batches) {
+        synchronized (batches) {
+            if (run.isCancelled() || !batches.hasNext()) {
+                return null;
+            }
+            return run.startBatch(batches.next());
+        }
+    }
+
+    private CompletableFuture<Void> runBatch(ProcessRun run, ProcessRun.Batch batch,
+                                             InflightLimiter.RequestPermits permits, DownstreamCall call) {
+        AtomicInteger cursor = new AtomicInteger(batch.range().start());
+        CompletableFuture<?>[] chains = new CompletableFuture<?>[Math.min(itemConcurrency, batch.range().length())];
+        for (int i = 0; i < chains.length; i++) {
+            chains[i] = nextItem(run, batch, cursor, permits, call);
+        }
+        return CompletableFuture.allOf(chains).whenComplete((v, error) -> batch.seal());
+    }
+
+    private CompletableFuture<Void> nextItem(ProcessRun run, ProcessRun.Batch batch, AtomicInteger cursor,
+                                             InflightLimiter.RequestPermits permits, DownstreamCall call) {
+        return CompletableFuture.supplyAsync(() -> callNext(run, batch, cursor, permits, call), executorService)
+            .thenCompose(outcome -> outcome == null
+                ? DONE
+                : outcome.thenCompose(ok -> nextItem(run, batch, cursor, permits, call)));
+    }
+
+    /**
+     * Starts the next item on the current (executor) thread, where its first attempt runs; a
+     * dependent stage may run on whichever thread completes its source, so no call is made there.
+     * The slot is held until the final outcome. Null when the chain should end.
+     */
+    private static CompletableFuture<Boolean> callNext(ProcessRun run, ProcessRun.Batch batch, AtomicInteger cursor,
+                                                       InflightLimiter.RequestPermits permits, DownstreamCall call) {
+        Integer item = startItem(run, batch, cursor, permits);
+        if (item == null) {
+            return null;
+        }
+        CompletableFuture<Boolean> outcome;
+        try {
+            outcome = call.call(item);
+        } catch (RuntimeException e) {
+            // A call that throws instead of completing its future still ends the item and frees its slot
+            outcome = CompletableFuture.failedFuture(e);
+        }
+        return outcome.handle((ok, error) -> {
+            try {
+                batch.itemDone(Boolean.TRUE.equals(ok));
+            } finally {
+                permits.release();
+            }
+            return Boolean.TRUE.equals(ok);
+        });
+    }
+
+    // Takes the next item of the batch and a limiter slot for it; null when the chain should end
+    private static Integer startItem(ProcessRun run, ProcessRun.Batch batch, AtomicInteger cursor,
+                                     InflightLimiter.RequestPermits permits) {
+        while (!run.isCancelled()) {
+            int i = cursor.getAndIncrement();
+            if (i >= batch.range().end()) {
+                return null;
+            }
+            int item = i * 2;
+            if (item % 2 != 0) {
+                continue;
+            }
+            if (!permits.acquire(run)) {
+                return null;
+            }
+            batch.itemStarted();
+            return item;
+        }
+        return null;
+    }
+
+    @Override
+    public String name() {
+        return "completable-future";
+    }
+}
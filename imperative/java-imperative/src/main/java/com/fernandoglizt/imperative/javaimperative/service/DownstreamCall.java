@@ -0,0 +1,14 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Downstream call for one pipeline item. The first attempt runs on the calling thread;
+ * retries are scheduled on a timer and run on the executor, so no thread is parked
+ * during backoff. The future completes with the final outcome and never exceptionally.
+ */
+@FunctionalInterface
+public interface DownstreamCall {
+
+    CompletableFuture<Boolean> call(int item);
+}
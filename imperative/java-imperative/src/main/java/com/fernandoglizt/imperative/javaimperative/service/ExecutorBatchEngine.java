@@ -0,0 +1,114 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Flat engine: every item is submitted to the shared executor as soon as the
+ * {@link InflightLimiter} grants a slot. Batches only affect completion tracking.
+ * The bean runs calls on virtual threads; EngineConfig registers the same engine over a
+ * bounded pool of platform threads as "platform".
+ */
+@Component
+public class ExecutorBatchEngine implements BatchEngine {
+
+    private final String name;
+    private final ExecutorService executorService;
+    private final InflightLimiter limiter;
+
+    @Autowired
+    public ExecutorBatchEngine(ExecutorService executorService, InflightLimiter limiter) {
+        this("executor", executorService, limiter);
+    }
+
+    public ExecutorBatchEngine(String name, ExecutorService executorService, InflightLimiter limiter) {
+        this.name = name;
+        this.executorService = executorService;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void run(ProcessRun run, DownstreamCall call) throws InterruptedException {
+        InflightLimiter.RequestPermits permits = limiter.forRequest();
+
+        try {
+            produce(run, call, permits);
+        } catch (InterruptedException e) {
+            run.cancel("interrupted");
+        }
+
+        // In-flight calls of a cancelled run are interrupted, so draining stays short
+        while (true) {
+            try {
+                permits.awaitIdle();
+                return;
+            } catch (InterruptedException e) {
+                run.cancel("interrupted");
+            }
+        }
+    }
+
+    private void produce(ProcessRun run, DownstreamCall call, InflightLimiter.RequestPermits permits)
+            throws InterruptedException {
+        for (BatchRange range : run.batches()) {
+            if (run.isCancelled()) {
+                return;
+            }
+            ProcessRun.Batch batch = run.startBatch(range);
+            try {
+                for (int i = range.start(); i < range.end() && !run.isCancelled(); i++) {
+                    int item = i * 2;
+                    if (item % 2 != 0) {
+                        continue;
+                    }
+
+                    // Blocks the producer until both the request and the global budget have room
+                    permits.acquire();
+                    batch.itemStarted();
+                    try {
+                        // The slot is held until the final outcome, retries included
+                        executorService.submit(() -> {
+                            boolean attached = false;
+                            try {
+                                call.call(item).whenComplete((ok, error) ->
+                                    itemDone(batch, permits, Boolean.TRUE.equals(ok)));
+                                attached = true;
+                            } finally {
+                                // A call that throws instead of completing its future still ends the item
+                                if (!attached) {
+                                    itemDone(batch, permits, false);
+                                }
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        itemDone(batch, permits, false);
+                        throw e;
+                    }
+                }
+            } finally {
+                batch.seal();
+            }
+        }
+    }
+
+    private static void itemDone(ProcessRun.Batch batch, InflightLimiter.RequestPermits permits, boolean ok) {
+        try {
+            batch.itemDone(ok);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public ExecutorService callExecutor() {
+        return executorService;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+}
@@ -1,135 +1,461 @@
 package com.fernandoglizt.imperative.javaimperative.service;
 
+import com.fernandoglizt.imperative.javaimperative.client.DownstreamClient;
 import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
 import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.net.InetAddress;
-import java.util.ArrayList;
+import java.net.URI;
+import java.time.Instant;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.IntStream;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ImperativeProcessor {
 
     private static final Logger log = LoggerFactory.getLogger(ImperativeProcessor.class);
 
-    private final RestTemplate restTemplate;
+    private final DownstreamClient downstreamClient;
+    private final Map<String, BatchEngine> engines;
+    private final String defaultEngine;
     private final ExecutorService executorService;
-    
-    @Value("${app.downstream.retry-attempts:1}")
-    private int retryAttempts;
+    private final ScheduledExecutorService scheduler;
+    private final CancellationStats cancellationStats;
+    private final int maxConcurrentRuns;
+    private final Semaphore runSlots;
+    private final RetryPolicy retryPolicy;
+    private final DownstreamTargets downstreamTargets;
+    private final ProcessMetrics metrics;
+    private final InflightLimiter limiter;
+    private final AdaptiveLimit adaptiveLimit;
+    private final CircuitBreakers circuitBreakers;
+    private final HedgePolicy hedgePolicy;
+    private final CallCoalescer coalescer;
+    private final BatchCallRunner batchCallRunner;
+    private final boolean batchCalls;
 
-    public ImperativeProcessor(RestTemplate restTemplate, ExecutorService executorService) {
-        this.restTemplate = restTemplate;
+    @Value("${app.process.timeout-ms:0}")
+    private long timeoutMs;
+
+    public ImperativeProcessor(DownstreamClient downstreamClient, List<BatchEngine> engines,
+                               ExecutorService executorService, ScheduledExecutorService scheduler,
+                               CancellationStats cancellationStats, RetryPolicy retryPolicy,
+                               DownstreamTargets downstreamTargets, ProcessMetrics metrics,
+                               InflightLimiter limiter, AdaptiveLimit adaptiveLimit,
+                               CircuitBreakers circuitBreakers, HedgePolicy hedgePolicy, CallCoalescer coalescer,
+                               BatchCallRunner batchCallRunner,
+                               @Value("${app.engine:executor}") String defaultEngine,
+                               @Value("${app.downstream.call-mode:item}") String callMode,
+                               @Value("${app.process.max-concurrent-runs:200}") int maxConcurrentRuns) {
+        if (maxConcurrentRuns <= 0) {
+            throw new IllegalArgumentException("max-concurrent-runs must be > 0");
+        }
+        this.downstreamClient = downstreamClient;
         this.executorService = executorService;
+        this.scheduler = scheduler;
+        this.cancellationStats = cancellationStats;
+        this.retryPolicy = retryPolicy;
+        this.downstreamTargets = downstreamTargets;
+        this.metrics = metrics;
+        this.limiter = limiter;
+        this.adaptiveLimit = adaptiveLimit;
+        this.circuitBreakers = circuitBreakers;
+        this.hedgePolicy = hedgePolicy;
+        this.coalescer = coalescer;
+        this.batchCallRunner = batchCallRunner;
+        if (!"item".equals(callMode) && !"batch".equals(callMode)) {
+            throw new IllegalArgumentException("Unknown app.downstream.call-mode: " + callMode + " (expected item or batch)");
+        }
+        this.batchCalls = "batch".equals(callMode);
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.runSlots = new Semaphore(maxConcurrentRuns);
+        this.engines = engines.stream()
+            .collect(Collectors.toUnmodifiableMap(BatchEngine::name, Function.identity()));
+        if (!this.engines.containsKey(defaultEngine)) {
+            throw new IllegalArgumentException(
+                "Unknown app.engine: " + defaultEngine + " (expected one of " + this.engines.keySet() + ")");
+        }
+        this.defaultEngine = defaultEngine;
+
+        limiter.resize(adaptiveLimit.limit());
+        adaptiveLimit.onChange(limiter::resize);
+        metrics.gauge("downstream.limit", "Current process-wide inflight limit (" + adaptiveLimit.algorithm() + ")",
+            adaptiveLimit::limit);
+        metrics.gauge("downstream.breakers.open", "Downstream hosts whose circuit breaker is open or half-open",
+            circuitBreakers::openCount);
+        metrics.gauge("process.runs.active", "Runs currently holding a MAX_CONCURRENT_RUNS slot",
+            () -> maxConcurrentRuns - runSlots.availablePermits());
+        if (scheduler instanceof ScheduledThreadPoolExecutor timers) {
+            metrics.gauge("scheduler.queued", "Pending timers (run deadlines, retry backoffs)",
+                () -> timers.getQueue().size());
+        }
+    }
+
+    public String defaultEngine() {
+        return defaultEngine;
+    }
+
+    public Set<String> engines() {
+        return new TreeSet<>(engines.keySet());
+    }
+
+    // A run without an explicit engine uses ENGINE
+    public boolean supportsEngine(String name) {
+        return name == null || engines.containsKey(name);
+    }
+
+    private BatchEngine engineFor(ProcessRequest request) {
+        String name = request.engine() != null ? request.engine() : defaultEngine;
+        BatchEngine engine = engines.get(name);
+        if (engine == null) {
+            throw new IllegalArgumentException("Unknown engine: " + name + " (expected one of " + engines() + ")");
+        }
+        return engine;
+    }
+
+    public long timeoutMs() {
+        return timeoutMs;
+    }
+
+    public Map<String, Object> snapshot() {
+        return Map.of(
+            "engine", defaultEngine,
+            "engines", engines(),
+            "call_mode", batchCalls ? "batch" : "item",
+            "active_runs", maxConcurrentRuns - runSlots.availablePermits(),
+            "max_concurrent_runs", maxConcurrentRuns,
+            "timeout_ms", timeoutMs
+        );
     }
 
     public ProcessResponse processEvents(ProcessRequest request) {
-        long startTime = System.currentTimeMillis();
-        
-        List<Integer> items = IntStream.rangeClosed(1, request.count())
-            .map(i -> i * 2)
-            .filter(i -> i % 2 == 0)
-            .boxed()
-            .toList();
-
-        AtomicInteger externalCallsOk = new AtomicInteger(0);
-        AtomicInteger externalCallsFail = new AtomicInteger(0);
-        
-        List<List<Integer>> batches = createBatches(items, request.batch());
-        int batchCount = batches.size();
-        
-        CountDownLatch latch = new CountDownLatch(items.size());
-        
-        for (List<Integer> batch : batches) {
-            for (Integer item : batch) {
-                executorService.submit(() -> {
-                    try {
-                        boolean success = callDownstreamWithRetry(
-                            item, 
-                            request.getIoDelayMs(), 
-                            request.getDownstreamUrl()
-                        );
-                        if (success) {
-                            externalCallsOk.incrementAndGet();
-                        } else {
-                            externalCallsFail.incrementAndGet();
-                        }
-                    } finally {
-                        latch.countDown();
-                    }
-                });
-            }
+        return processEvents(newRun(request));
+    }
+
+    /**
+     * Runs the pipeline on its own virtual thread so the caller's (container) thread is free
+     * while downstream calls are in flight. Throws {@link RejectedExecutionException} when
+     * MAX_CONCURRENT_RUNS runs are already active.
+     */
+    public CompletableFuture<ProcessResponse> processAsync(ProcessRun run) {
+        if (!runSlots.tryAcquire()) {
+            throw new RejectedExecutionException("max concurrent runs reached: " + maxConcurrentRuns);
         }
+        try {
+            return CompletableFuture.supplyAsync(() -> processEvents(run), executorService)
+                .whenComplete((response, error) -> runSlots.release());
+        } catch (RejectedExecutionException e) {
+            runSlots.release();
+            throw e;
+        }
+    }
+
+    public ProcessRun newRun(ProcessRequest request) {
+        Instant deadline = timeoutMs > 0 ? Instant.now().plusMillis(timeoutMs) : null;
+        return new ProcessRun(request, deadline, metrics::recordBatch);
+    }
 
+    /**
+     * Runs the pipeline on the current thread. The run may be cancelled from another
+     * thread via {@link ProcessRun#cancel(String)}; the response then reports partial counts.
+     */
+    public ProcessResponse processEvents(ProcessRun run) {
+        ProcessRequest request = run.request();
+        BatchEngine engine = engineFor(request);
+        String engineName = batchCalls ? batchCallRunner.name() : engine.name();
+        URI target = batchCalls
+            ? downstreamTargets.resolveBatch(request.getDownstreamUrl(), request.getIoDelayMs())
+            : downstreamTargets.resolve(request.getDownstreamUrl(), request.getIoDelayMs());
+        CircuitBreakers.Breaker breaker = circuitBreakers.forTarget(target);
+        ExecutorService callExecutor = engine.callExecutor() != null ? engine.callExecutor() : executorService;
+        ScheduledFuture<?> watchdog = run.deadline() == null ? null : scheduler.schedule(
+            () -> run.cancel("deadline"), timeoutMs, TimeUnit.MILLISECONDS);
+
+        run.attach();
         try {
-            latch.await();
+            if (batchCalls) {
+                batchCallRunner.run(run, target, breaker);
+            } else {
+                engine.run(run, request.coalesce()
+                    ? item -> awaitShared(run, coalescer.get(target, () -> sharedCall(run, target, breaker, callExecutor)))
+                    : item -> callDownstreamWithRetry(run, target, breaker, callExecutor));
+            }
         } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Processing interrupted", e);
+            run.cancel("interrupted");
+        } finally {
+            run.detach();
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+            // Drop a cancellation interrupt aimed at this run; keep a real one
+            if (Thread.interrupted() && "interrupted".equals(run.cancelReason())) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (run.isCancelled()) {
+            cancellationStats.record(run.callsAvoided(), run.callsCancelled());
+            log.warn("Run cancelled ({}) after {}ms: {} calls avoided, {} in-flight calls interrupted",
+                run.cancelReason(), run.elapsedMillis(), run.callsAvoided(), run.callsCancelled());
         }
 
-        long durationMs = System.currentTimeMillis() - startTime;
+        long durationMs = run.elapsedMillis();
         String hostname = getHostname();
 
         ProcessResponse response = ProcessResponse.success(
             request,
-            items.size(),
-            batchCount,
-            externalCallsOk.get(),
-            externalCallsFail.get(),
+            run.processedEvents(),
+            run.batchesStarted(),
+            run.callsOk(),
+            run.callsFail(),
             durationMs,
+            run.batchMillisAvg(),
+            run.batchMillisMax(),
+            run.callsAvoided(),
+            run.callsFastFailed(),
+            run.hedgesSent(),
+            run.hedgesWon(),
+            run.cancelReason(),
+            run.firstAttemptLatency().summary(),
+            run.callLatency().summary(),
+            engineName,
             hostname
         );
+        metrics.recordRun(engineName, durationMs, response.eventsPerSec());
 
-        log.info("Processed {} events in {}ms ({} events/sec) - OK: {}, Fail: {}",
-            items.size(), durationMs, response.eventsPerSec(),
-            externalCallsOk.get(), externalCallsFail.get());
+        log.info("Processed {} events in {}ms ({} events/sec) - OK: {}, Fail: {}, engine: {}, batch avg/max: {}/{}ms",
+            run.processedEvents(), durationMs, response.eventsPerSec(),
+            run.callsOk(), run.callsFail(), engineName, run.batchMillisAvg(), run.batchMillisMax());
 
         return response;
     }
 
-    private boolean callDownstreamWithRetry(int item, int delayMs, String baseUrl) {
-        String url = appendDelayParam(baseUrl, delayMs);
-        
-        for (int attempt = 0; attempt <= retryAttempts; attempt++) {
+    /**
+     * The call coalesced runs share, started by whichever run asked first. It runs on its own
+     * thread in a {@link ProcessRun#detached()} scope, so cancelling that run neither interrupts it
+     * nor turns it into a failure for the other runs; it still reports into the first run's counters.
+     */
+    private CompletableFuture<Boolean> sharedCall(ProcessRun run, URI uri, CircuitBreakers.Breaker breaker,
+                                                  ExecutorService executor) {
+        ProcessRun flight = run.detached();
+        return CompletableFuture.supplyAsync(() -> callDownstreamWithRetry(flight, uri, breaker, executor), executor)
+            .thenCompose(Function.identity());
+    }
+
+    // One run's wait on a shared call: ends with a failure as soon as that run is cancelled
+    private static CompletableFuture<Boolean> awaitShared(ProcessRun run, CompletableFuture<Boolean> shared) {
+        if (shared.isDone()) {
+            return shared;
+        }
+        CompletableFuture<Boolean> outcome = new CompletableFuture<>();
+        Runnable onCancel = () -> outcome.complete(false);
+        run.addCancelListener(onCancel);
+        shared.whenComplete((ok, error) -> {
+            run.removeCancelListener(onCancel);
+            if (error != null) {
+                outcome.completeExceptionally(error);
+            } else {
+                outcome.complete(ok);
+            }
+        });
+        return outcome;
+    }
+
+    private CompletableFuture<Boolean> callDownstreamWithRetry(ProcessRun run, URI uri, CircuitBreakers.Breaker breaker,
+                                                               ExecutorService executor) {
+        CompletableFuture<Boolean> outcome = new CompletableFuture<>();
+
+        retryPolicy.onCall();
+        hedgePolicy.onCall();
+        attempt(run, uri, breaker, executor, 0, System.nanoTime(), outcome);
+        return outcome;
+    }
+
+    // Runs one attempt on the current thread; a retry is re-armed on the scheduler and runs on the engine's executor
+    private void attempt(ProcessRun run, URI uri, CircuitBreakers.Breaker breaker, ExecutorService executor,
+                         int attempt, long callStart, CompletableFuture<Boolean> outcome) {
+        if (!breaker.tryAcquire()) {
+            // Host is open: fail the call (and skip its remaining retries) without touching the network
+            run.callFastFailed();
+            run.callLatency().recordNanos(System.nanoTime() - callStart);
+            outcome.complete(false);
+            return;
+        }
+        long attemptStart = System.nanoTime();
+        boolean ok = run.invoke(() -> {
+            long start = System.nanoTime();
+            boolean success = false;
             try {
-                restTemplate.getForObject(url, String.class);
-                return true;
+                success = hedgePolicy.enabled() && breaker.state() == CircuitBreakers.State.CLOSED
+                    ? hedgedGet(run, uri)
+                    : downstreamClient.get(uri);
+                return success;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
             } catch (Exception e) {
-                if (attempt < retryAttempts) {
-                    try {
-                        long backoff = Math.min(100L * (1L << attempt), 300L);
-                        Thread.sleep(backoff);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        return false;
-                    }
+                log.debug("Downstream call failed (attempt {}): {}", attempt + 1, e.toString());
+                return false;
+            } finally {
+                long rtt = System.nanoTime() - start;
+                if (!run.isCancelled()) {
+                    adaptiveLimit.onSample(rtt, limiter.inflight(), !success);
+                }
+                metrics.recordCall(start, success);
+                if (success) {
+                    hedgePolicy.recordLatency(rtt);
+                }
+                if (attempt == 0) {
+                    run.firstAttemptLatency().recordNanos(rtt);
                 }
             }
+        });
+        if (run.isCancelled()) {
+            breaker.onCancelled();
+        } else {
+            breaker.onResult(System.nanoTime() - attemptStart, ok);
+        }
+
+        if (ok) {
+            if (attempt > 0) {
+                retryPolicy.onRetrySucceeded();
+            }
+            run.callLatency().recordNanos(System.nanoTime() - callStart);
+            outcome.complete(true);
+            return;
+        }
+        if (run.isCancelled()) {
+            outcome.complete(false);
+            return;
+        }
+        if (!retryPolicy.tryRetry(attempt)) {
+            run.callLatency().recordNanos(System.nanoTime() - callStart);
+            outcome.complete(false);
+            return;
+        }
+
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    executor.execute(() -> attempt(run, uri, breaker, executor, attempt + 1, callStart, outcome));
+                } catch (RejectedExecutionException e) {
+                    outcome.complete(false);
+                }
+            }, retryPolicy.backoffMillis(attempt), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            outcome.complete(false);
         }
-        return false;
     }
 
-    private String appendDelayParam(String url, int delay) {
-        return url.contains("?") 
-            ? url + "&delay_ms=" + delay 
-            : url + "?delay_ms=" + delay;
+    /**
+     * Primary on its own virtual thread; past the hedge delay a second copy races it. Only a success
+     * wins, so a copy that fails fast cannot beat a slower one that succeeds: the call fails once
+     * every copy sent has failed. The loser is interrupted. The hedge holds a process-wide limiter
+     * slot of its own and is skipped when none is free. Both copies stay on virtual threads whatever
+     * the engine: the calling thread blocks on them, so on a bounded pool they could queue behind it.
+     */
+    private boolean hedgedGet(ProcessRun run, URI uri) throws Exception {
+        long delay = hedgePolicy.delayNanos();
+        CompletableFuture<Boolean> winner = new CompletableFuture<>();
+        AtomicInteger running = new AtomicInteger(1);
+        Future<?> primary = executorService.submit(() -> race(uri, winner, running, null));
+        Future<?> hedge = null;
+        AtomicBoolean hedgeSlot = new AtomicBoolean();
+        try {
+            if (delay >= 0) {
+                try {
+                    return winner.get(delay, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    hedge = sendHedge(run, uri, winner, running, hedgeSlot);
+                }
+            }
+            return winner.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+                // A hedge cancelled before it started never reaches its own release
+                if (hedgeSlot.compareAndSet(false, true)) {
+                    limiter.releaseExtra();
+                }
+            }
+        }
+    }
+
+    // Null when no hedge went out: answer already in, no budget, or no free limiter slot
+    private Future<?> sendHedge(ProcessRun run, URI uri, CompletableFuture<Boolean> winner, AtomicInteger running,
+                                AtomicBoolean slot) {
+        if (winner.isDone() || !limiter.tryAcquireExtra()) {
+            return null;
+        }
+        if (!hedgePolicy.tryHedge()) {
+            limiter.releaseExtra();
+            return null;
+        }
+        run.hedgeSent();
+        running.incrementAndGet();
+        try {
+            return executorService.submit(() -> {
+                if (slot.compareAndSet(false, true)) {
+                    try {
+                        race(uri, winner, running, run);
+                    } finally {
+                        limiter.releaseExtra();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            limiter.releaseExtra();
+            running.decrementAndGet();
+            return null;
+        }
     }
 
-    private List<List<Integer>> createBatches(List<Integer> items, int batchSize) {
-        List<List<Integer>> batches = new ArrayList<>();
-        for (int i = 0; i < items.size(); i += batchSize) {
-            batches.add(items.subList(i, Math.min(i + batchSize, items.size())));
+    // hedgeOf is the run that sent this copy as a hedge, null for the primary
+    private void race(URI uri, CompletableFuture<Boolean> winner, AtomicInteger running, ProcessRun hedgeOf) {
+        Exception failure = null;
+        try {
+            if (downstreamClient.get(uri)) {
+                if (winner.complete(true) && hedgeOf != null) {
+                    hedgePolicy.onHedgeWon();
+                    hedgeOf.hedgeWon();
+                }
+                return;
+            }
+        } catch (Exception e) {
+            failure = e;
+        }
+        // A failed copy answers only when no other copy is still running
+        if (running.decrementAndGet() == 0) {
+            if (failure != null) {
+                winner.completeExceptionally(failure);
+            } else {
+                winner.complete(false);
+            }
         }
-        return batches;
     }
 
     private String getHostname() {
@@ -0,0 +1,165 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two-level admission control for downstream calls: a process-wide cap (POOL_SIZE, or the
+ * current {@link AdaptiveLimit} once resized) shared by every request plus a per-request cap
+ * (BATCH_CONCURRENCY x ITEM_CONCURRENCY, same budget the reactive service gets from its
+ * nested flatMaps). Producers block on acquire instead of queueing tasks in the executor.
+ */
+@Component
+public class InflightLimiter {
+
+    private volatile int globalLimit;
+    private final int perRequestLimit;
+    private final ResizableSemaphore global;
+    private final AtomicInteger queued = new AtomicInteger(0);
+
+    public InflightLimiter(
+            @Value("${app.executor.pool-size:128}") int globalLimit,
+            @Value("${app.executor.batch-concurrency:4}") int batchConcurrency,
+            @Value("${app.executor.item-concurrency:64}") int itemConcurrency
+    ) {
+        if (globalLimit <= 0) {
+            throw new IllegalArgumentException("pool-size must be > 0");
+        }
+        if (batchConcurrency <= 0 || itemConcurrency <= 0) {
+            throw new IllegalArgumentException("batch-concurrency and item-concurrency must be > 0");
+        }
+        this.globalLimit = globalLimit;
+        this.perRequestLimit = batchConcurrency * itemConcurrency;
+        this.global = new ResizableSemaphore(globalLimit);
+    }
+
+    // Shrinking takes effect as inflight calls release; nobody is interrupted
+    public synchronized void resize(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+        int delta = limit - globalLimit;
+        if (delta > 0) {
+            global.release(delta);
+        } else if (delta < 0) {
+            global.shrink(-delta);
+        }
+        globalLimit = limit;
+    }
+
+    public RequestPermits forRequest() {
+        return new RequestPermits();
+    }
+
+    /**
+     * A process-wide slot outside every request's budget, for an extra copy of a call that
+     * already holds one (a hedge). Never waits: false when the global limit is reached. Return
+     * it with {@link #releaseExtra()}.
+     */
+    public boolean tryAcquireExtra() {
+        return global.tryAcquire();
+    }
+
+    public void releaseExtra() {
+        global.release();
+    }
+
+    public int inflight() {
+        return globalLimit - global.availablePermits();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    public int globalLimit() {
+        return globalLimit;
+    }
+
+    public int perRequestLimit() {
+        return perRequestLimit;
+    }
+
+    public Map<String, Object> snapshot() {
+        return Map.of(
+            "inflight", inflight(),
+            "queued", queued(),
+            "global_limit", globalLimit,
+            "per_request_limit", perRequestLimit
+        );
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        void shrink(int permits) {
+            reducePermits(permits);
+        }
+    }
+
+    /**
+     * Permits owned by a single /process run. A slot must be acquired before a call is
+     * submitted and released once the call (including retries) has finished.
+     */
+    public final class RequestPermits {
+
+        private final Semaphore local = new Semaphore(perRequestLimit);
+
+        public void acquire() throws InterruptedException {
+            queued.incrementAndGet();
+            try {
+                local.acquire();
+                try {
+                    global.acquire();
+                } catch (InterruptedException e) {
+                    local.release();
+                    throw e;
+                }
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        /**
+         * {@link #acquire()} for a worker thread that is not the run's producer: the wait is
+         * interrupted by {@link ProcessRun#cancel(String)}. Returns false, holding nothing,
+         * once the run is cancelled.
+         */
+        public boolean acquire(ProcessRun run) {
+            run.attach();
+            try {
+                acquire();
+            } catch (InterruptedException e) {
+                run.cancel("interrupted");
+                return false;
+            } finally {
+                run.detach();
+                // A cancel racing with detach may still interrupt this thread; the run is over either way
+                Thread.interrupted();
+            }
+            if (run.isCancelled()) {
+                release();
+                return false;
+            }
+            return true;
+        }
+
+        public void release() {
+            global.release();
+            local.release();
+        }
+
+        // Blocks until every slot taken by this request has been released
+        public void awaitIdle() throws InterruptedException {
+            local.acquire(perRequestLimit);
+            local.release(perRequestLimit);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.model.JobStatus;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory store behind /jobs: runs submitted without holding a connection. At most
+ * JOBS_MAX_RUNNING jobs run at once and at most JOBS_CAPACITY are kept; finished jobs expire
+ * JOBS_TTL_MS after finishing, and the oldest finished job makes room when the store is full.
+ * Submissions over either bound are rejected rather than queued.
+ */
+@Component
+public class JobRegistry {
+
+    public enum State {
+        RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final Instant submittedAt = Instant.now();
+        private final ProcessRun run;
+        private volatile State state = State.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile long finishedNanos;
+        private volatile ProcessResponse result;
+        private volatile String error;
+
+        Job(ProcessRun run) {
+            this.run = run;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public State state() {
+            return state;
+        }
+
+        public JobStatus status() {
+            ProcessResponse response = result;
+            return new JobStatus(
+                id,
+                state.label(),
+                submittedAt,
+                finishedAt,
+                run.request().count(),
+                response != null ? response.processedEvents() : run.processedEvents(),
+                response != null ? response.externalCallsOk() : run.callsOk(),
+                response != null ? response.externalCallsFail() : run.callsFail(),
+                response,
+                error
+            );
+        }
+
+        // state is written last: readers that see a finished state also see the rest
+        private void finish(ProcessResponse response, Throwable failure) {
+            finishedNanos = System.nanoTime();
+            finishedAt = Instant.now();
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause()
+                    : failure;
+                error = String.valueOf(cause.getMessage());
+                state = State.FAILED;
+            } else {
+                result = response;
+                state = response.cancelled() != null ? State.CANCELLED : State.SUCCEEDED;
+            }
+        }
+    }
+
+    private final ImperativeProcessor processor;
+    private final int capacity;
+    private final int maxRunning;
+    private final long ttlNanos;
+    // Submission order, so the first finished entry found is the oldest
+    private final LinkedHashMap<String, Job> jobs = new LinkedHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public JobRegistry(
+            ImperativeProcessor processor,
+            @Value("${app.jobs.capacity:1000}") int capacity,
+            @Value("${app.jobs.max-running:4}") int maxRunning,
+            @Value("${app.jobs.ttl-ms:600000}") long ttlMs
+    ) {
+        if (capacity <= 0 || maxRunning <= 0 || maxRunning > capacity || ttlMs < 0) {
+            throw new IllegalArgumentException("jobs need capacity > 0, 0 < max-running <= capacity and ttl-ms >= 0");
+        }
+        this.processor = processor;
+        this.capacity = capacity;
+        this.maxRunning = maxRunning;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /**
+     * Starts the run in the background and returns its job. Throws
+     * {@link RejectedExecutionException} when the store is full of running jobs, JOBS_MAX_RUNNING
+     * jobs are running, or the processor refuses the run (MAX_CONCURRENT_RUNS).
+     */
+    public Job submit(ProcessRequest request) {
+        synchronized (jobs) {
+            evictExpired();
+            if (running.get() >= maxRunning) {
+                rejected.increment();
+                throw new RejectedExecutionException("max running jobs reached: " + maxRunning);
+            }
+            if (jobs.size() >= capacity && !evictOldestFinished()) {
+                rejected.increment();
+                throw new RejectedExecutionException("job store full: " + capacity);
+            }
+
+            Job job = new Job(processor.newRun(request));
+            running.incrementAndGet();
+            try {
+                processor.processAsync(job.run).whenComplete((response, error) -> {
+                    job.finish(response, error);
+                    running.decrementAndGet();
+                });
+            } catch (RejectedExecutionException e) {
+                running.decrementAndGet();
+                rejected.increment();
+                throw e;
+            }
+            jobs.put(job.id, job);
+            submitted.increment();
+            return job;
+        }
+    }
+
+    // Null when unknown or expired
+    public Job get(String id) {
+        synchronized (jobs) {
+            evictExpired();
+            return jobs.get(id);
+        }
+    }
+
+    /**
+     * Cancels a running job, which keeps its entry and finishes as cancelled with partial
+     * counts; a finished job is removed instead. Null when unknown or expired.
+     */
+    public Job cancel(String id) {
+        synchronized (jobs) {
+            evictExpired();
+            Job job = jobs.get(id);
+            if (job == null) {
+                return null;
+            }
+            if (job.state == State.RUNNING) {
+                job.run.cancel("cancelled");
+            } else {
+                jobs.remove(id);
+            }
+            return job;
+        }
+    }
+
+    public int running() {
+        return running.get();
+    }
+
+    public Map<String, Object> snapshot() {
+        int stored;
+        synchronized (jobs) {
+            stored = jobs.size();
+        }
+        return Map.of(
+            "capacity", capacity,
+            "max_running", maxRunning,
+            "ttl_ms", TimeUnit.NANOSECONDS.toMillis(ttlNanos),
+            "stored", stored,
+            "running", running(),
+            "submitted", submitted.sum(),
+            "rejected", rejected.sum()
+        );
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(job -> job.state != State.RUNNING && now - job.finishedNanos >= ttlNanos);
+    }
+
+    private boolean evictOldestFinished() {
+        for (Iterator<Job> it = jobs.values().iterator(); it.hasNext(); ) {
+            if (it.next().state != State.RUNNING) {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+}
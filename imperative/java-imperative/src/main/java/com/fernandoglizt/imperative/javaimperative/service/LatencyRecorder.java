@@ -0,0 +1,94 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.model.LatencySummary;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-run latency histogram in the HdrHistogram layout: microsecond values, exact below 128us,
+ * then 64 linear sub-buckets per power of two (under 1.6% relative error) up to ~38h.
+ * Recording is one array increment plus a max CAS: lock-free, allocation-free and safe from
+ * any number of virtual threads or event loops.
+ */
+public final class LatencyRecorder {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR = SUB_COUNT << 1;
+    private static final long MAX_VALUE = (1L << 37) - 1;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.min(MAX_VALUE, Math.max(0, nanos / 1_000));
+        counts.incrementAndGet(index(micros));
+        if (micros > max.get()) {
+            max.accumulateAndGet(micros, Math::max);
+        }
+    }
+
+    static int index(long micros) {
+        if (micros < LINEAR) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) - SUB_COUNT;
+        return LINEAR + (exponent - SUB_BITS - 1) * SUB_COUNT + sub;
+    }
+
+    // Highest value that maps to the bucket, as HdrHistogram reports percentiles
+    static long highestValue(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+        int k = index - LINEAR;
+        int shift = k / SUB_COUNT + 1;
+        long sub = SUB_COUNT + k % SUB_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public LatencySummary summary() {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long maxMicros = max.get();
+        return new LatencySummary(
+            total,
+            percentile(snapshot, total, maxMicros, 0.50),
+            percentile(snapshot, total, maxMicros, 0.90),
+            percentile(snapshot, total, maxMicros, 0.95),
+            percentile(snapshot, total, maxMicros, 0.99),
+            percentile(snapshot, total, maxMicros, 0.999),
+            maxMicros / 1_000.0
+        );
+    }
+
+    private static double percentile(long[] snapshot, long total, long maxMicros, double quantile) {
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), maxMicros) / 1_000.0;
+            }
+        }
+        return maxMicros / 1_000.0;
+    }
+}
@@ -0,0 +1,118 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for /process, scraped at /actuator/prometheus. Every meter is resolved once
+ * here, so the hot path only does a nanoTime delta and a lock-free histogram update; counters
+ * and gauges that already exist elsewhere (retry policy, limiter) are read at scrape time.
+ */
+@Component
+public class ProcessMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer callOk;
+    private final Timer callFail;
+    private final Timer batchDuration;
+    // By engine, so engines run side by side in one JVM can be compared
+    private final Map<String, Timer> runDuration = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> runEventsPerSec = new ConcurrentHashMap<>();
+
+    public ProcessMetrics(MeterRegistry registry, RetryPolicy retryPolicy, InflightLimiter limiter,
+                          CircuitBreakers circuitBreakers, HedgePolicy hedgePolicy, CallCoalescer coalescer) {
+        this.registry = registry;
+        this.callOk = callTimer(registry, "ok");
+        this.callFail = callTimer(registry, "fail");
+        this.batchDuration = Timer.builder("process.batch.duration")
+            .description("Time from the first item of a batch being started to its last call returning")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofMinutes(1))
+            .register(registry);
+
+        FunctionCounter.builder("downstream.retries", retryPolicy, RetryPolicy::retriesIssued)
+            .tag("result", "issued").register(registry);
+        FunctionCounter.builder("downstream.retries", retryPolicy, RetryPolicy::retriesSuppressed)
+            .tag("result", "suppressed").register(registry);
+        FunctionCounter.builder("downstream.retries", retryPolicy, RetryPolicy::retriesSucceeded)
+            .tag("result", "succeeded").register(registry);
+        Gauge.builder("downstream.retry.budget.tokens", retryPolicy, RetryPolicy::budgetTokens)
+            .register(registry);
+
+        FunctionCounter.builder("downstream.fast.failed", circuitBreakers, CircuitBreakers::fastFailed)
+            .description("Calls refused by an open circuit breaker").register(registry);
+        FunctionCounter.builder("downstream.breaker.opened", circuitBreakers, CircuitBreakers::timesOpened)
+            .description("Circuit breaker transitions to open").register(registry);
+
+        FunctionCounter.builder("downstream.hedges", hedgePolicy, HedgePolicy::hedgesSent)
+            .tag("result", "sent").register(registry);
+        FunctionCounter.builder("downstream.hedges", hedgePolicy, HedgePolicy::hedgesWon)
+            .tag("result", "won").register(registry);
+
+        FunctionCounter.builder("downstream.coalescing", coalescer, CallCoalescer::hits)
+            .tag("result", "hit").register(registry);
+        FunctionCounter.builder("downstream.coalescing", coalescer, CallCoalescer::misses)
+            .tag("result", "miss").register(registry);
+        FunctionCounter.builder("downstream.coalescing", coalescer, CallCoalescer::coalesced)
+            .tag("result", "coalesced").register(registry);
+
+        Gauge.builder("downstream.inflight", limiter, InflightLimiter::inflight)
+            .description("Downstream calls holding a limiter slot")
+            .register(registry);
+        Gauge.builder("downstream.queued", limiter, InflightLimiter::queued)
+            .description("Producers blocked waiting for a limiter slot")
+            .register(registry);
+        Gauge.builder("downstream.saturation", limiter, l -> l.inflight() / (double) l.globalLimit())
+            .description("Share of POOL_SIZE in use")
+            .register(registry);
+    }
+
+    private static Timer callTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("downstream.call")
+            .description("Latency of one downstream attempt")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(registry);
+    }
+
+    public void gauge(String name, String description, Supplier<Number> value) {
+        Gauge.builder(name, value).description(description).register(registry);
+    }
+
+    public void recordCall(long startNanos, boolean ok) {
+        (ok ? callOk : callFail).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBatch(long nanos) {
+        batchDuration.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRun(String engine, long durationMs, double eventsPerSec) {
+        runDuration.computeIfAbsent(engine, tag -> Timer.builder("process.run.duration")
+            .description("Duration of one /process run")
+            .tag("engine", tag)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofMinutes(10))
+            .register(registry))
+            .record(durationMs, TimeUnit.MILLISECONDS);
+        runEventsPerSec.computeIfAbsent(engine, tag -> DistributionSummary.builder("process.run.events.per.sec")
+            .description("Throughput of one /process run")
+            .tag("engine", tag)
+            .register(registry))
+            .record(eventsPerSec);
+    }
+}
@@ -0,0 +1,342 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.model.BatchResult;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Mutable state of a single /process run, shared by the producer and the worker threads.
+ * Engines report item and batch completion here; the processor builds the response from it.
+ * Cancelling a run interrupts every thread registered with it (the producer and the threads
+ * currently inside a downstream call), so blocked acquires and in-flight HTTP calls return early.
+ */
+public final class ProcessRun {
+
+    private final ProcessRequest request;
+    private final Instant deadline;
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicInteger processed;
+    private final AtomicInteger callsOk;
+    private final AtomicInteger callsFail;
+    private final AtomicInteger callsCancelled;
+    private final AtomicInteger callsFastFailed;
+    private final AtomicInteger hedgesSent;
+    private final AtomicInteger hedgesWon;
+    private final AtomicInteger batchesStarted;
+    private final AtomicInteger batchesDone;
+    private final AtomicLong batchNanosTotal;
+    private final AtomicLong batchNanosMax;
+    private final LatencyRecorder firstAttemptLatency;
+    private final LatencyRecorder callLatency;
+
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private final Set<Runnable> cancelListeners = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<String> cancelReason = new AtomicReference<>();
+    private volatile Consumer<BatchResult> batchListener;
+    private final LongConsumer batchNanosSink;
+
+    public ProcessRun(ProcessRequest request, Instant deadline) {
+        this(request, deadline, nanos -> { });
+    }
+
+    // batchNanosSink receives the duration of every finished batch (metrics)
+    public ProcessRun(ProcessRequest request, Instant deadline, LongConsumer batchNanosSink) {
+        this.request = request;
+        this.deadline = deadline;
+        this.batchNanosSink = batchNanosSink;
+        this.processed = new AtomicInteger(0);
+        this.callsOk = new AtomicInteger(0);
+        this.callsFail = new AtomicInteger(0);
+        this.callsCancelled = new AtomicInteger(0);
+        this.callsFastFailed = new AtomicInteger(0);
+        this.hedgesSent = new AtomicInteger(0);
+        this.hedgesWon = new AtomicInteger(0);
+        this.batchesStarted = new AtomicInteger(0);
+        this.batchesDone = new AtomicInteger(0);
+        this.batchNanosTotal = new AtomicLong(0);
+        this.batchNanosMax = new AtomicLong(0);
+        this.firstAttemptLatency = new LatencyRecorder();
+        this.callLatency = new LatencyRecorder();
+    }
+
+    // Same counters as the origin, fresh cancellation and interrupt scope
+    private ProcessRun(ProcessRun origin) {
+        this.request = origin.request;
+        this.deadline = null;
+        this.processed = origin.processed;
+        this.callsOk = origin.callsOk;
+        this.callsFail = origin.callsFail;
+        this.callsCancelled = origin.callsCancelled;
+        this.callsFastFailed = origin.callsFastFailed;
+        this.hedgesSent = origin.hedgesSent;
+        this.hedgesWon = origin.hedgesWon;
+        this.batchesStarted = origin.batchesStarted;
+        this.batchesDone = origin.batchesDone;
+        this.batchNanosTotal = origin.batchNanosTotal;
+        this.batchNanosMax = origin.batchNanosMax;
+        this.firstAttemptLatency = origin.firstAttemptLatency;
+        this.callLatency = origin.callLatency;
+        this.batchNanosSink = origin.batchNanosSink;
+    }
+
+    /**
+     * A view of this run that reports into the same counters but is never cancelled with it:
+     * for a call this run starts on behalf of other runs too (a coalesced call), which must not
+     * be cut short when this one goes away.
+     */
+    public ProcessRun detached() {
+        return new ProcessRun(this);
+    }
+
+    public ProcessRequest request() {
+        return request;
+    }
+
+    public Iterable<BatchRange> batches() {
+        return BatchRange.of(request.count(), request.batch());
+    }
+
+    // Null when the run has no deadline
+    public Instant deadline() {
+        return deadline;
+    }
+
+    // Called on whichever thread finishes a batch; a blocking listener holds that thread back
+    public void onBatchDone(Consumer<BatchResult> listener) {
+        this.batchListener = listener;
+    }
+
+    public Batch startBatch(BatchRange range) {
+        batchesStarted.incrementAndGet();
+        return new Batch(range);
+    }
+
+    public int processedEvents() {
+        return processed.get();
+    }
+
+    public int callsOk() {
+        return callsOk.get();
+    }
+
+    public int callsFail() {
+        return callsFail.get();
+    }
+
+    public int callsCancelled() {
+        return callsCancelled.get();
+    }
+
+    // Failed calls refused by an open circuit breaker (a subset of callsFail)
+    public int callsFastFailed() {
+        return callsFastFailed.get();
+    }
+
+    public void callFastFailed() {
+        callsFastFailed.incrementAndGet();
+    }
+
+    public int hedgesSent() {
+        return hedgesSent.get();
+    }
+
+    public void hedgeSent() {
+        hedgesSent.incrementAndGet();
+    }
+
+    // Hedges that answered successfully before their primary
+    public int hedgesWon() {
+        return hedgesWon.get();
+    }
+
+    public void hedgeWon() {
+        hedgesWon.incrementAndGet();
+    }
+
+    // Calls that were never issued because the run was cancelled first
+    public int callsAvoided() {
+        return isCancelled() ? Math.max(0, request.count() - processed.get()) : 0;
+    }
+
+    public int batchesStarted() {
+        return batchesStarted.get();
+    }
+
+    public long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public double batchMillisAvg() {
+        int done = batchesDone.get();
+        return done > 0 ? batchNanosTotal.get() / 1_000_000.0 / done : 0.0;
+    }
+
+    public double batchMillisMax() {
+        return batchNanosMax.get() / 1_000_000.0;
+    }
+
+    // Latency of each call's first attempt only
+    public LatencyRecorder firstAttemptLatency() {
+        return firstAttemptLatency;
+    }
+
+    // Latency of each call from its first attempt to its final outcome, retries and backoff included
+    public LatencyRecorder callLatency() {
+        return callLatency;
+    }
+
+    /**
+     * Cancels the run once; later calls are ignored. Returns whether this call cancelled it.
+     */
+    public boolean cancel(String reason) {
+        if (!cancelReason.compareAndSet(null, reason)) {
+            return false;
+        }
+        Thread current = Thread.currentThread();
+        for (Thread thread : threads) {
+            if (thread != current) {
+                thread.interrupt();
+            }
+        }
+        for (Runnable listener : cancelListeners) {
+            if (cancelListeners.remove(listener)) {
+                listener.run();
+            }
+        }
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return cancelReason.get() != null;
+    }
+
+    // Null while the run has not been cancelled
+    public String cancelReason() {
+        return cancelReason.get();
+    }
+
+    // Registers the current thread so that cancel() interrupts it
+    public void attach() {
+        threads.add(Thread.currentThread());
+        if (isCancelled()) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void detach() {
+        threads.remove(Thread.currentThread());
+    }
+
+    /**
+     * Runs {@code listener} once when the run is cancelled, right away if it already is: how a
+     * wait with no thread to interrupt (a callback on a shared future) ends early. Remove it with
+     * {@link #removeCancelListener(Runnable)} once the wait is over.
+     */
+    public void addCancelListener(Runnable listener) {
+        cancelListeners.add(listener);
+        if (isCancelled() && cancelListeners.remove(listener)) {
+            listener.run();
+        }
+    }
+
+    public void removeCancelListener(Runnable listener) {
+        cancelListeners.remove(listener);
+    }
+
+    /**
+     * Runs one downstream attempt on the current thread, interruptible by {@link #cancel(String)}.
+     * Attempts are skipped once the run is cancelled.
+     */
+    public boolean invoke(BooleanSupplier attempt) {
+        attach();
+        try {
+            return !isCancelled() && attempt.getAsBoolean();
+        } finally {
+            detach();
+        }
+    }
+
+    /**
+     * Completion tracking for one batch. The producer holds one reference until
+     * {@link #seal()}, each started item holds another, so the batch finishes when
+     * its last call returns, whichever thread that is.
+     */
+    public final class Batch {
+
+        private final BatchRange range;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicInteger ok = new AtomicInteger(0);
+        private final AtomicInteger fail = new AtomicInteger(0);
+
+        private Batch(BatchRange range) {
+            this.range = range;
+        }
+
+        public BatchRange range() {
+            return range;
+        }
+
+        public void itemStarted() {
+            processed.incrementAndGet();
+            pending.incrementAndGet();
+        }
+
+        public void itemDone(boolean success) {
+            if (success) {
+                ok.incrementAndGet();
+                callsOk.incrementAndGet();
+            } else if (isCancelled()) {
+                fail.incrementAndGet();
+                callsCancelled.incrementAndGet();
+            } else {
+                fail.incrementAndGet();
+                callsFail.incrementAndGet();
+            }
+            release();
+        }
+
+        // Called by the producer once every item of the batch has been started
+        public void seal() {
+            release();
+        }
+
+        private void release() {
+            if (pending.decrementAndGet() == 0) {
+                long nanos = System.nanoTime() - startNanos;
+                batchNanosTotal.addAndGet(nanos);
+                batchNanosMax.accumulateAndGet(nanos, Math::max);
+                batchesDone.incrementAndGet();
+                batchNanosSink.accept(nanos);
+
+                Consumer<BatchResult> listener = batchListener;
+                if (listener != null) {
+                    listener.accept(result(nanos));
+                }
+            }
+        }
+
+        private BatchResult result(long nanos) {
+            int done = callsOk.get() + callsFail.get() + callsCancelled.get();
+            long runNanos = System.nanoTime() - ProcessRun.this.startNanos;
+            return new BatchResult(
+                range.index(),
+                ok.get(),
+                fail.get(),
+                nanos / 1_000_000,
+                done,
+                runNanos > 0 ? done * 1_000_000_000.0 / runNanos : 0.0
+            );
+        }
+    }
+}
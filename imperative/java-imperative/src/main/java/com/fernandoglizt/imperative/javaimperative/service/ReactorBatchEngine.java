@@ -0,0 +1,100 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Reactor engine: the same {@code range -> map -> filter -> flatMap(batch) -> flatMap(call)} shape as
+ * the reactive service, with BATCH_CONCURRENCY and ITEM_CONCURRENCY as the flatMap limits, but over the
+ * blocking client of this service: each call is subscribed on the executor, where it waits for a
+ * limiter slot and makes its first attempt.
+ */
+@Component
+public class ReactorBatchEngine implements BatchEngine {
+
+    private final Scheduler scheduler;
+    private final InflightLimiter limiter;
+    private final int batchConcurrency;
+    private final int itemConcurrency;
+
+    public ReactorBatchEngine(
+            ExecutorService executorService,
+            InflightLimiter limiter,
+            @Value("${app.executor.batch-concurrency:4}") int batchConcurrency,
+            @Value("${app.executor.item-concurrency:64}") int itemConcurrency
+    ) {
+        this.scheduler = Schedulers.fromExecutorService(executorService, "engine-reactor");
+        this.limiter = limiter;
+        this.batchConcurrency = batchConcurrency;
+        this.itemConcurrency = itemConcurrency;
+    }
+
+    @Override
+    public void run(ProcessRun run, DownstreamCall call) throws InterruptedException {
+        InflightLimiter.RequestPermits permits = limiter.forRequest();
+
+        CompletableFuture<Void> done = Flux.fromIterable(run.batches())
+            .takeWhile(range -> !run.isCancelled())
+            .flatMap(range -> runBatch(run, range, permits, call), batchConcurrency)
+            .then()
+            .toFuture();
+
+        try {
+            done.get();
+        } catch (InterruptedException e) {
+            // No new items are taken and in-flight calls are interrupted, so this stays short
+            run.cancel("interrupted");
+            done.join();
+        } catch (ExecutionException e) {
+            run.cancel("error");
+            throw new IllegalStateException("engine pipeline failed", e.getCause());
+        }
+    }
+
+    private Mono<Void> runBatch(ProcessRun run, BatchRange range, InflightLimiter.RequestPermits permits,
+                                DownstreamCall call) {
+        return Mono.defer(() -> {
+            ProcessRun.Batch batch = run.startBatch(range);
+            return Flux.range(range.start(), range.length())
+                .takeWhile(i -> !run.isCancelled())
+                .map(i -> i * 2)
+                .filter(item -> item % 2 == 0)
+                .flatMap(item -> callItem(run, batch, item, permits, call), itemConcurrency)
+                .then()
+                .doFinally(signal -> batch.seal());
+        });
+    }
+
+    private Mono<Boolean> callItem(ProcessRun run, ProcessRun.Batch batch, int item,
+                                   InflightLimiter.RequestPermits permits, DownstreamCall call) {
+        // Empty once the run is cancelled
+        return Mono.fromCallable(() -> permits.acquire(run) ? item : null)
+            .subscribeOn(scheduler)
+            .flatMap(started -> {
+                batch.itemStarted();
+                // The first attempt runs here, on the executor; the slot is held until the final outcome
+                return Mono.fromFuture(() -> call.call(started))
+                    .onErrorReturn(false)
+                    .doOnNext(ok -> {
+                        try {
+                            batch.itemDone(ok);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+            });
+    }
+
+    @Override
+    public String name() {
+        return "reactor";
+    }
+}
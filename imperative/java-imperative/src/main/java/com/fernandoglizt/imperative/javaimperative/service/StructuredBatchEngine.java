@@ -0,0 +1,174 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Structured concurrency engine (JDK 21 preview): each batch runs in its own scope,
+ * at most BATCH_CONCURRENCY batch scopes are open at once and each one forks at most
+ * ITEM_CONCURRENCY calls, the same shape as ReactiveProcessor's nested flatMaps.
+ * When the run deadline passes or the run is cancelled, the root scope shuts down, which
+ * interrupts every open batch and, through their scopes, every in-flight call.
+ */
+@Component
+public class StructuredBatchEngine implements BatchEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(StructuredBatchEngine.class);
+
+    private final InflightLimiter limiter;
+    private final int batchConcurrency;
+    private final int itemConcurrency;
+
+    public StructuredBatchEngine(
+            InflightLimiter limiter,
+            @Value("${app.executor.batch-concurrency:4}") int batchConcurrency,
+            @Value("${app.executor.item-concurrency:64}") int itemConcurrency
+    ) {
+        this.limiter = limiter;
+        this.batchConcurrency = batchConcurrency;
+        this.itemConcurrency = itemConcurrency;
+    }
+
+    @Override
+    public void run(ProcessRun run, DownstreamCall call) throws InterruptedException {
+        InflightLimiter.RequestPermits permits = limiter.forRequest();
+        Semaphore batchSlots = new Semaphore(batchConcurrency);
+
+        try (var scope = new StructuredTaskScope<Void>()) {
+            try {
+                for (BatchRange range : run.batches()) {
+                    if (run.isCancelled()) {
+                        break;
+                    }
+                    acquire(batchSlots, run.deadline());
+                    ProcessRun.Batch batch = run.startBatch(range);
+                    scope.fork(() -> {
+                        try {
+                            runBatch(batch, permits, run, call);
+                        } finally {
+                            batchSlots.release();
+                        }
+                        return null;
+                    });
+                }
+            } catch (TimeoutException e) {
+                log.warn("Deadline reached after {} batches, cancelling in-flight batches", run.batchesStarted());
+                cancel(scope, run, "deadline");
+            } catch (InterruptedException e) {
+                cancel(scope, run, "interrupted");
+            }
+            joinOrCancel(scope, run);
+        }
+    }
+
+    private void runBatch(ProcessRun.Batch batch, InflightLimiter.RequestPermits permits, ProcessRun run,
+                          DownstreamCall call) throws InterruptedException {
+        BatchRange range = batch.range();
+        Semaphore itemSlots = new Semaphore(itemConcurrency);
+
+        try (var scope = new StructuredTaskScope<Boolean>()) {
+            try {
+                for (int i = range.start(); i < range.end() && !run.isCancelled(); i++) {
+                    int item = i * 2;
+                    if (item % 2 != 0) {
+                        continue;
+                    }
+
+                    itemSlots.acquire();
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        itemSlots.release();
+                        throw e;
+                    }
+                    batch.itemStarted();
+                    scope.fork(() -> {
+                        boolean ok = false;
+                        try {
+                            // The subtask stays open across retries so scope shutdown still reaches it
+                            ok = await(call.call(item));
+                            return ok;
+                        } finally {
+                            // Also reached when call.call throws, so the item still ends and the batch completes
+                            try {
+                                batch.itemDone(ok);
+                            } finally {
+                                permits.release();
+                                itemSlots.release();
+                            }
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                // Parent scope shut down: cancel the calls of this batch as well
+                scope.shutdown();
+                scope.join();
+                throw e;
+            } finally {
+                batch.seal();
+            }
+            scope.join();
+        }
+    }
+
+    private static boolean await(CompletableFuture<Boolean> outcome) {
+        try {
+            return outcome.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    private static void acquire(Semaphore slots, Instant deadline) throws InterruptedException, TimeoutException {
+        if (deadline == null) {
+            slots.acquire();
+            return;
+        }
+        long remainingNanos = Duration.between(Instant.now(), deadline).toNanos();
+        if (remainingNanos <= 0 || !slots.tryAcquire(remainingNanos, TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException();
+        }
+    }
+
+    private static void joinOrCancel(StructuredTaskScope<?> scope, ProcessRun run) throws InterruptedException {
+        try {
+            if (run.deadline() == null) {
+                scope.join();
+            } else {
+                scope.joinUntil(run.deadline());
+            }
+        } catch (TimeoutException e) {
+            log.warn("Deadline reached, cancelling in-flight batches");
+            cancel(scope, run, "deadline");
+        } catch (InterruptedException e) {
+            // Run cancelled from outside (caller gone) or owner interrupted
+            cancel(scope, run, "interrupted");
+        }
+    }
+
+    private static void cancel(StructuredTaskScope<?> scope, ProcessRun run, String reason)
+            throws InterruptedException {
+        run.cancel(reason);
+        scope.shutdown();
+        scope.join();
+    }
+
+    @Override
+    public String name() {
+        return "structured";
+    }
+}
@@ -0,0 +1,89 @@
+package com.fernandoglizt.imperative.javaimperative.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JdkHttpDownstreamClientTest {
+
+    private HttpServer server;
+    private JdkHttpDownstreamClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/slow", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            if (query != null && query.contains("sleep")) {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int code = query != null && query.contains("code=503") ? 503 : 200;
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(code, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        // Echoes the request body and fails the first id of the batch
+        server.createContext("/slow/batch", exchange -> {
+            String ids = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String first = ids.substring(ids.indexOf('[') + 1).split("[,\\]]")[0];
+            byte[] body = ("{\"ok\":true,\"failed\":[" + first + "]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        client = new JdkHttpDownstreamClient(Duration.ofMillis(200), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReportSuccessOn2xx() throws Exception {
+        assertTrue(client.get(uri("delay_ms=0")));
+    }
+
+    @Test
+    void shouldReportFailureOn5xx() throws Exception {
+        assertFalse(client.get(uri("code=503")));
+    }
+
+    @Test
+    void shouldThrowOnReadTimeout() {
+        assertThrows(HttpTimeoutException.class, () -> client.get(uri("sleep=1")));
+    }
+
+    @Test
+    void shouldReadFailedIdsOfBatch() throws Exception {
+        BatchReply reply = client.postBatch(
+            URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/slow/batch"), 7, 12);
+
+        assertTrue(reply.ok());
+        assertArrayEquals(new int[]{7}, reply.failed());
+    }
+
+    private URI uri(String query) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/slow?" + query);
+    }
+}
@@ -0,0 +1,297 @@
+package com.fernandoglizt.imperative.javaimperative.controller;
+
+import com.fernandoglizt.imperative.javaimperative.client.DownstreamClient;
+import com.fernandoglizt.imperative.javaimperative.model.LatencySummary;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
+import com.fernandoglizt.imperative.javaimperative.service.AdaptiveLimit;
+import com.fernandoglizt.imperative.javaimperative.service.BatchRange;
+import com.fernandoglizt.imperative.javaimperative.service.CallCoalescer;
+import com.fernandoglizt.imperative.javaimperative.service.CancellationStats;
+import com.fernandoglizt.imperative.javaimperative.service.CircuitBreakers;
+import com.fernandoglizt.imperative.javaimperative.service.HedgePolicy;
+import com.fernandoglizt.imperative.javaimperative.service.ImperativeProcessor;
+import com.fernandoglizt.imperative.javaimperative.service.InflightLimiter;
+import com.fernandoglizt.imperative.javaimperative.service.JobRegistry;
+import com.fernandoglizt.imperative.javaimperative.service.ProcessRun;
+import com.fernandoglizt.imperative.javaimperative.service.RetryPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProcessController.class)
+@Import(ProcessControllerTest.TestConfig.class)
+class ProcessControllerTest {
+
+    private static final String BODY = """
+        {"count": 10, "batch": 5, "ioDelayMs": 0, "downstreamUrl": "http://slow-io:8080/slow"}
+        """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImperativeProcessor processor;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        @Primary
+        public ImperativeProcessor imperativeProcessor() {
+            return mock(ImperativeProcessor.class);
+        }
+
+        @Bean
+        public InflightLimiter inflightLimiter() {
+            return new InflightLimiter(128, 4, 64);
+        }
+
+        @Bean
+        public DownstreamClient downstreamClient() {
+            return mock(DownstreamClient.class);
+        }
+
+        @Bean
+        public CancellationStats cancellationStats() {
+            return new CancellationStats();
+        }
+
+        @Bean
+        public RetryPolicy retryPolicy() {
+            return new RetryPolicy(1, 100, 300, 0.1, 100);
+        }
+
+        @Bean
+        public AdaptiveLimit adaptiveLimit() {
+            return new AdaptiveLimit("fixed", 128, 8, 1024, 1000);
+        }
+
+        @Bean
+        public CircuitBreakers circuitBreakers() {
+            return new CircuitBreakers(true, 100, 20, 50, 1000, 80, 5000, 5);
+        }
+
+        @Bean
+        public HedgePolicy hedgePolicy() {
+            return new HedgePolicy(false, 0, 5, 100);
+        }
+
+        @Bean
+        public CallCoalescer callCoalescer() {
+            return new CallCoalescer(1000, 1024);
+        }
+
+        @Bean
+        public JobRegistry jobRegistry(ImperativeProcessor processor) {
+            return new JobRegistry(processor, 16, 4, 60_000);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        reset(processor);
+        when(processor.supportsEngine(any())).thenAnswer(inv -> inv.getArgument(0) == null
+            || "executor".equals(inv.getArgument(0)) || "reactor".equals(inv.getArgument(0)));
+        when(processor.engines()).thenReturn(new TreeSet<>(List.of("executor", "reactor")));
+    }
+
+    @Test
+    void shouldReturnResponseAsynchronously() throws Exception {
+        when(processor.processAsync(any()))
+            .thenReturn(CompletableFuture.completedFuture(response(null)));
+
+        MvcResult result = mockMvc.perform(post("/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.ok").value(true))
+            .andExpect(jsonPath("$.processed_events").value(10));
+    }
+
+    @Test
+    void shouldReturn503WhenRunsAreSaturated() throws Exception {
+        when(processor.processAsync(any()))
+            .thenThrow(new RejectedExecutionException("max concurrent runs reached: 1"));
+
+        MvcResult result = mockMvc.perform(post("/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void shouldReturn504WhenRunHitsDeadline() throws Exception {
+        when(processor.processAsync(any()))
+            .thenReturn(CompletableFuture.completedFuture(response("deadline")));
+
+        MvcResult result = mockMvc.perform(post("/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isGatewayTimeout())
+            .andExpect(jsonPath("$.cancelled").value("deadline"));
+    }
+
+    @Test
+    void shouldOutwaitTheRunDeadlineSoThePartialSummaryIsTheReply() throws Exception {
+        when(processor.timeoutMs()).thenReturn(1_000L);
+        when(processor.processAsync(any())).thenReturn(new CompletableFuture<>());
+
+        MvcResult result = mockMvc.perform(post("/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        assertTrue(result.getRequest().getAsyncContext().getTimeout() > 1_000L,
+            "async timeout was " + result.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @Test
+    void shouldReturn400WhenCountExceedsMax() throws Exception {
+        MvcResult result = mockMvc.perform(post("/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"count\": 300000, \"batch\": 10}"))
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturn400ForUnknownEngine() throws Exception {
+        MvcResult result = mockMvc.perform(post("/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"count\": 10, \"batch\": 5, \"engine\": \"fibers\"}"))
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.requested").value("fibers"))
+            .andExpect(jsonPath("$.engines[1]").value("reactor"));
+    }
+
+    @Test
+    void shouldPassTheRequestedEngineToTheRun() throws Exception {
+        when(processor.newRun(any())).thenAnswer(inv -> new ProcessRun(inv.getArgument(0), null));
+        when(processor.processAsync(any()))
+            .thenReturn(CompletableFuture.completedFuture(response(null)));
+
+        MvcResult result = mockMvc.perform(post("/process")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"count\": 10, \"batch\": 5, \"engine\": \"reactor\"}"))
+            .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+
+        ArgumentCaptor<ProcessRequest> request = ArgumentCaptor.forClass(ProcessRequest.class);
+        verify(processor).newRun(request.capture());
+        assertEquals("reactor", request.getValue().engine());
+    }
+
+    @Test
+    void shouldStreamBatchesThenSummaryAsNdjson() throws Exception {
+        when(processor.newRun(any())).thenAnswer(inv -> new ProcessRun(inv.getArgument(0), null));
+        when(processor.processAsync(any())).thenAnswer(inv -> {
+            ProcessRun run = inv.getArgument(0);
+            for (BatchRange range : run.batches()) {
+                ProcessRun.Batch batch = run.startBatch(range);
+                for (int i = range.start(); i < range.end(); i++) {
+                    batch.itemStarted();
+                    batch.itemDone(true);
+                }
+                batch.seal();
+            }
+            return CompletableFuture.completedFuture(response(null));
+        });
+
+        MvcResult result = mockMvc.perform(post("/process/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content(BODY))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk());
+
+        String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"batch\":0"));
+        assertTrue(lines[1].contains("\"processed_events\":10"));
+        assertTrue(lines[2].contains("\"engine\":\"executor\""));
+    }
+
+    @Test
+    void shouldRunJobsInTheBackground() throws Exception {
+        CompletableFuture<ProcessResponse> pending = new CompletableFuture<>();
+        when(processor.newRun(any())).thenAnswer(inv -> new ProcessRun(inv.getArgument(0), null));
+        when(processor.processAsync(any())).thenReturn(pending);
+
+        MvcResult submitted = mockMvc.perform(post("/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(BODY))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.state").value("running"))
+            .andReturn();
+        String location = submitted.getResponse().getHeader("Location");
+
+        pending.complete(response(null));
+        mockMvc.perform(get(location))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.state").value("succeeded"))
+            .andExpect(jsonPath("$.result.processed_events").value(10));
+
+        mockMvc.perform(delete(location))
+            .andExpect(status().isOk());
+        mockMvc.perform(get(location))
+            .andExpect(status().isNotFound());
+    }
+
+    private static ProcessResponse response(String cancelled) {
+        ProcessRequest request = new ProcessRequest(10, 5, 0, null);
+        return ProcessResponse.success(request, 10, 2, 10, 0, 5, 1.0, 2.0,
+            0, 0, 0, 0, cancelled, new LatencySummary(10, 1, 1, 1, 1, 1, 1), new LatencySummary(10, 1, 1, 1, 1, 1, 1),
+            "executor", "test");
+    }
+}
@@ -0,0 +1,66 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimitTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void shouldNeverMoveWhenFixed() {
+        AdaptiveLimit limit = new AdaptiveLimit("fixed", 64, 8, 1024, 1000);
+
+        limit.onSample(5_000 * MS, 64, true);
+
+        assertEquals(64, limit.limit());
+    }
+
+    @Test
+    void shouldGrowAdditivelyAndBackOffMultiplicativelyWithAimd() {
+        AdaptiveLimit limit = new AdaptiveLimit("aimd", 20, 8, 1024, 1000);
+        AtomicInteger notified = new AtomicInteger();
+        limit.onChange(notified::set);
+
+        limit.onSample(50 * MS, 20, false);
+        limit.onSample(50 * MS, 21, false);
+        assertEquals(22, limit.limit());
+
+        // Not using the limit: no growth
+        limit.onSample(50 * MS, 2, false);
+        assertEquals(22, limit.limit());
+
+        limit.onSample(50 * MS, 22, true);
+        assertEquals(19, limit.limit());
+        limit.onSample(1_500 * MS, 19, false);
+        assertEquals(17, limit.limit());
+        assertEquals(17, notified.get());
+    }
+
+    @Test
+    void shouldShrinkWithGradientWhenRttInflates() {
+        AdaptiveLimit limit = new AdaptiveLimit("gradient", 100, 8, 1024, 1000);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(50 * MS, limit.limit(), false);
+        }
+        int steady = limit.limit();
+        assertTrue(steady > 100, "grows while RTT stays at its no-load value: " + steady);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(200 * MS, limit.limit(), false);
+        }
+        assertTrue(limit.limit() < steady / 2, "shrinks once the downstream queues: " + limit.limit());
+        assertTrue(limit.limit() >= 8);
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit("vegas", 64, 8, 1024, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit("aimd", 4, 8, 1024, 1000));
+    }
+}
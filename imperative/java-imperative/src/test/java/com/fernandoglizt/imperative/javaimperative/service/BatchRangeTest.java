@@ -0,0 +1,38 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchRangeTest {
+
+    @Test
+    void shouldCoverRangeWithFullAndTrailingBatches() {
+        List<BatchRange> ranges = new ArrayList<>();
+        BatchRange.of(250, 100).forEach(ranges::add);
+
+        assertEquals(List.of(
+            new BatchRange(0, 1, 100),
+            new BatchRange(1, 101, 100),
+            new BatchRange(2, 201, 50)
+        ), ranges);
+        assertEquals(3, BatchRange.countFor(250, 100));
+    }
+
+    @Test
+    void shouldProduceSingleBatchWhenBatchExceedsCount() {
+        List<BatchRange> ranges = new ArrayList<>();
+        BatchRange.of(10, 100).forEach(ranges::add);
+
+        assertEquals(List.of(new BatchRange(0, 1, 10)), ranges);
+    }
+
+    @Test
+    void shouldRejectNonPositiveBatch() {
+        assertThrows(IllegalArgumentException.class, () -> BatchRange.of(10, 0));
+    }
+}
@@ -0,0 +1,70 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CallCoalescerTest {
+
+    private static final URI TARGET = URI.create("http://slow-io:8080/slow?delay_ms=50");
+
+    @Test
+    void shouldShareOneInflightCallThenServeFromCache() {
+        CallCoalescer coalescer = new CallCoalescer(60_000, 16);
+        CompletableFuture<Boolean> network = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<Boolean> leader = coalescer.get(TARGET, () -> {
+            calls.incrementAndGet();
+            return network;
+        });
+        CompletableFuture<Boolean> follower = coalescer.get(TARGET, () -> {
+            calls.incrementAndGet();
+            return network;
+        });
+        assertSame(leader, follower);
+        assertFalse(leader.isDone());
+
+        network.complete(true);
+        assertTrue(follower.join());
+        assertTrue(coalescer.get(TARGET, () -> CompletableFuture.completedFuture(false)).join());
+
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.misses());
+        assertEquals(1, coalescer.coalesced());
+        assertEquals(1, coalescer.hits());
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+        CallCoalescer coalescer = new CallCoalescer(60_000, 16);
+
+        assertFalse(coalescer.get(TARGET, () -> CompletableFuture.completedFuture(false)).join());
+        assertTrue(coalescer.get(TARGET, () -> CompletableFuture.completedFuture(true)).join());
+        assertEquals(2, coalescer.misses());
+        assertEquals(0, coalescer.hits());
+    }
+
+    @Test
+    void shouldExpireAndEvictEntries() throws InterruptedException {
+        CallCoalescer shortTtl = new CallCoalescer(10, 16);
+        shortTtl.get(TARGET, () -> CompletableFuture.completedFuture(true)).join();
+        Thread.sleep(20);
+        shortTtl.get(TARGET, () -> CompletableFuture.completedFuture(true)).join();
+        assertEquals(2, shortTtl.misses());
+
+        CallCoalescer small = new CallCoalescer(60_000, 1);
+        URI other = URI.create("http://slow-io:8080/slow?delay_ms=200");
+        small.get(TARGET, () -> CompletableFuture.completedFuture(true)).join();
+        small.get(other, () -> CompletableFuture.completedFuture(true)).join();
+        small.get(TARGET, () -> CompletableFuture.completedFuture(true)).join();
+        assertEquals(3, small.misses());
+    }
+}
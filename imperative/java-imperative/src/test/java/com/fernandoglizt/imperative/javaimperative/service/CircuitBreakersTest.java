@@ -0,0 +1,162 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakersTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private static CircuitBreakers breakers(long openMs) {
+        return new CircuitBreakers(true, 10, 4, 50, 100, 80, openMs, 2);
+    }
+
+    @Test
+    void shouldShareOneBreakerPerHost() {
+        CircuitBreakers breakers = breakers(1000);
+        CircuitBreakers.Breaker breaker = breakers.forTarget(URI.create("http://slow-io:8080/slow?delay_ms=50"));
+
+        assertSame(breaker, breakers.forTarget(URI.create("http://slow-io:8080/slow?delay_ms=200")));
+        assertEquals("http://slow-io:8080", breaker.host());
+    }
+
+    @Test
+    void shouldOpenOnFailureRateAndFailFast() {
+        CircuitBreakers breakers = breakers(60_000);
+        CircuitBreakers.Breaker breaker = breakers.forTarget(URI.create("http://slow-io:8080/slow"));
+
+        breaker.onResult(FAST, true);
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, true);
+        assertEquals(CircuitBreakers.State.CLOSED, breaker.state());
+
+        breaker.onResult(FAST, false);
+        assertEquals(CircuitBreakers.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(2, breakers.fastFailed());
+        assertEquals(1, breakers.openCount());
+    }
+
+    @Test
+    void shouldOpenOnSlowCallRate() {
+        CircuitBreakers.Breaker breaker = breakers(60_000).forTarget(URI.create("http://slow-io:8080/slow"));
+
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(SLOW, true);
+        }
+        assertEquals(CircuitBreakers.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void shouldForgetOutcomesThatSlideOutOfTheWindow() {
+        CircuitBreakers.Breaker breaker = breakers(60_000).forTarget(URI.create("http://slow-io:8080/slow"));
+
+        // Below minimum-calls while failing, then the 3 failures slide out behind 10 successes
+        for (int i = 0; i < 3; i++) {
+            breaker.onResult(FAST, false);
+        }
+        for (int i = 0; i < 10; i++) {
+            breaker.onResult(FAST, true);
+        }
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(FAST, false);
+        }
+        assertEquals(CircuitBreakers.State.CLOSED, breaker.state());
+
+        breaker.onResult(FAST, false);
+        assertEquals(CircuitBreakers.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void shouldOpenOnceWhenManyThreadsReportFailuresTogether() throws InterruptedException {
+        CircuitBreakers breakers = new CircuitBreakers(true, 100, 20, 50, 1000, 80, 60_000, 5);
+        CircuitBreakers.Breaker breaker = breakers.forTarget(URI.create("http://slow-io:8080/slow"));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    breaker.onResult(FAST, i % 2 == 0);
+                }
+            }));
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(CircuitBreakers.State.OPEN, breaker.state());
+        assertEquals(1, breakers.timesOpened());
+    }
+
+    @Test
+    void shouldProbeWhenHalfOpenAndCloseAfterSuccessfulProbes() throws InterruptedException {
+        CircuitBreakers.Breaker breaker = breakers(20).forTarget(URI.create("http://slow-io:8080/slow"));
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(FAST, false);
+        }
+
+        Thread.sleep(30);
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreakers.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onCancelled();
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onResult(FAST, true);
+        breaker.onResult(FAST, true);
+        assertEquals(CircuitBreakers.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() throws InterruptedException {
+        CircuitBreakers.Breaker breaker = breakers(20).forTarget(URI.create("http://slow-io:8080/slow"));
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(FAST, false);
+        }
+
+        Thread.sleep(30);
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(FAST, false);
+        assertEquals(CircuitBreakers.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldAlwaysPermitWhenDisabled() {
+        CircuitBreakers breakers = new CircuitBreakers(false, 10, 4, 50, 100, 80, 60_000, 2);
+        CircuitBreakers.Breaker breaker = breakers.forTarget(URI.create("http://slow-io:8080/slow"));
+        for (int i = 0; i < 10; i++) {
+            breaker.onResult(FAST, false);
+        }
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreakers.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakers(true, 10, 20, 50, 100, 80, 1000, 2));
+        assertThrows(IllegalArgumentException.class, () -> new CircuitBreakers(true, 10, 4, 0, 100, 80, 1000, 2));
+    }
+}
@@ -0,0 +1,106 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompletableFutureBatchEngineTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldProcessEveryItemWithinConcurrencyCaps() throws InterruptedException {
+        CompletableFutureBatchEngine engine = new CompletableFutureBatchEngine(executor, new InflightLimiter(128, 2, 3), 2, 3);
+        ProcessRun run = new ProcessRun(new ProcessRequest(50, 10, 0, null), null);
+        AtomicInteger inflight = new AtomicInteger();
+        AtomicInteger maxInflight = new AtomicInteger();
+
+        engine.run(run, item -> {
+            maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                return CompletableFuture.completedFuture(item % 4 != 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableFuture.completedFuture(false);
+            } finally {
+                inflight.decrementAndGet();
+            }
+        });
+
+        assertEquals(50, run.processedEvents());
+        assertEquals(5, run.batchesStarted());
+        assertEquals(25, run.callsOk());
+        assertEquals(25, run.callsFail());
+        assertTrue(maxInflight.get() <= 6, "max inflight was " + maxInflight.get());
+    }
+
+    @Test
+    void shouldReleaseTheSlotOfACallThatThrows() throws InterruptedException {
+        InflightLimiter limiter = new InflightLimiter(16, 2, 4);
+        CompletableFutureBatchEngine engine = new CompletableFutureBatchEngine(executor, limiter, 2, 4);
+        ProcessRun run = new ProcessRun(new ProcessRequest(100, 30, 0, null), null);
+        AtomicInteger batchesDone = new AtomicInteger();
+        run.onBatchDone(result -> batchesDone.incrementAndGet());
+
+        engine.run(run, item -> {
+            if (item % 4 == 0) {
+                throw new IllegalStateException("boom");
+            }
+            return CompletableFuture.completedFuture(true);
+        });
+
+        assertEquals(100, run.processedEvents());
+        assertEquals(50, run.callsOk());
+        assertEquals(50, run.callsFail());
+        assertEquals(4, batchesDone.get());
+        assertEquals(0, limiter.inflight());
+    }
+
+    @Test
+    void shouldStopTakingItemsAndInterruptCallsWhenCancelled() throws InterruptedException {
+        CompletableFutureBatchEngine engine = new CompletableFutureBatchEngine(executor, new InflightLimiter(16, 2, 4), 2, 4);
+        ProcessRun run = new ProcessRun(new ProcessRequest(10_000, 100, 0, null), null);
+
+        Thread producer = Thread.ofVirtual().start(() -> {
+            run.attach();
+            try {
+                engine.run(run, item -> CompletableFuture.completedFuture(run.invoke(() -> {
+                    try {
+                        Thread.sleep(10_000);
+                        return true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                })));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                run.detach();
+            }
+        });
+
+        Thread.sleep(200);
+        assertTrue(run.cancel("disconnect"));
+        producer.join(5_000);
+
+        assertTrue(!producer.isAlive(), "engine did not return after cancel");
+        assertEquals(8, run.callsCancelled());
+        assertEquals(10_000 - 8, run.callsAvoided());
+        assertEquals("disconnect", run.cancelReason());
+    }
+}
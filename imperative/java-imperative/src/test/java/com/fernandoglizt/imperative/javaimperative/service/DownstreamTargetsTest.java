@@ -0,0 +1,46 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DownstreamTargetsTest {
+
+    @Test
+    void shouldAppendDelayAsFirstOrExtraQueryParam() {
+        DownstreamTargets targets = new DownstreamTargets(4);
+
+        assertEquals(URI.create("http://slow-io:8080/slow?delay_ms=50"),
+            targets.resolve("http://slow-io:8080/slow", 50));
+        assertEquals(URI.create("http://slow-io:8080/slow?x=1&delay_ms=50"),
+            targets.resolve("http://slow-io:8080/slow?x=1", 50));
+    }
+
+    @Test
+    void shouldInsertBatchPathBeforeQuery() {
+        DownstreamTargets targets = new DownstreamTargets(4);
+
+        assertEquals(URI.create("http://slow-io:8080/slow/batch?delay_ms=50"),
+            targets.resolveBatch("http://slow-io:8080/slow", 50));
+        assertEquals(URI.create("http://slow-io:8080/slow/batch?x=1&delay_ms=50"),
+            targets.resolveBatch("http://slow-io:8080/slow?x=1", 50));
+    }
+
+    @Test
+    void shouldReuseResolvedUriAndEvictLeastRecentlyUsed() {
+        DownstreamTargets targets = new DownstreamTargets(2);
+
+        URI first = targets.resolve("http://a/slow", 10);
+        URI second = targets.resolve("http://b/slow", 10);
+        assertSame(first, targets.resolve("http://a/slow", 10));
+
+        targets.resolve("http://c/slow", 10);
+        assertEquals(2, targets.size());
+        assertSame(first, targets.resolve("http://a/slow", 10));
+        assertNotSame(second, targets.resolve("http://b/slow", 10));
+    }
+}
@@ -0,0 +1,89 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutorBatchEngineTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldProcessEveryItem() throws InterruptedException {
+        ExecutorBatchEngine engine = new ExecutorBatchEngine(executor, new InflightLimiter(16, 2, 4));
+        ProcessRun run = new ProcessRun(new ProcessRequest(100, 30, 0, null), null);
+
+        engine.run(run, item -> CompletableFuture.completedFuture(true));
+
+        assertEquals(100, run.processedEvents());
+        assertEquals(100, run.callsOk());
+        assertEquals(4, run.batchesStarted());
+    }
+
+    @Test
+    void shouldReleaseTheSlotOfACallThatThrows() throws InterruptedException {
+        ExecutorBatchEngine engine = new ExecutorBatchEngine(executor, new InflightLimiter(16, 2, 4));
+        ProcessRun run = new ProcessRun(new ProcessRequest(100, 30, 0, null), null);
+        AtomicInteger batchesDone = new AtomicInteger();
+        run.onBatchDone(result -> batchesDone.incrementAndGet());
+
+        engine.run(run, item -> {
+            if (item % 4 == 0) {
+                throw new IllegalStateException("boom");
+            }
+            return CompletableFuture.completedFuture(true);
+        });
+
+        assertEquals(100, run.processedEvents());
+        assertEquals(50, run.callsOk());
+        assertEquals(50, run.callsFail());
+        assertEquals(4, batchesDone.get());
+    }
+
+    @Test
+    void shouldStopProducingAndInterruptCallsWhenCancelled() throws InterruptedException {
+        ExecutorBatchEngine engine = new ExecutorBatchEngine(executor, new InflightLimiter(16, 2, 4));
+        ProcessRun run = new ProcessRun(new ProcessRequest(10_000, 100, 0, null), null);
+
+        Thread producer = Thread.ofVirtual().start(() -> {
+            run.attach();
+            try {
+                engine.run(run, item -> CompletableFuture.completedFuture(run.invoke(() -> {
+                    try {
+                        Thread.sleep(10_000);
+                        return true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                })));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                run.detach();
+            }
+        });
+
+        Thread.sleep(200);
+        assertTrue(run.cancel("disconnect"));
+        producer.join(5_000);
+
+        assertTrue(!producer.isAlive(), "engine did not return after cancel");
+        assertEquals(8, run.callsCancelled());
+        assertEquals(10_000 - 8, run.callsAvoided());
+        assertEquals("disconnect", run.cancelReason());
+    }
+}
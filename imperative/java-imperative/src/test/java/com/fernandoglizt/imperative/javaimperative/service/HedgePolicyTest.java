@@ -0,0 +1,57 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HedgePolicyTest {
+
+    @Test
+    void shouldNeverHedgeWhenDisabled() {
+        HedgePolicy policy = new HedgePolicy(false, 50, 5, 100);
+
+        assertEquals(-1, policy.delayNanos());
+    }
+
+    @Test
+    void shouldUseFixedDelayWhenConfigured() {
+        HedgePolicy policy = new HedgePolicy(true, 50, 5, 100);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), policy.delayNanos());
+    }
+
+    @Test
+    void shouldDeriveDelayFromLiveP95() {
+        HedgePolicy policy = new HedgePolicy(true, 0, 5, 100);
+        assertEquals(-1, policy.delayNanos());
+
+        for (int i = 1; i <= HedgePolicy.WINDOW; i++) {
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(i % 100 < 95 ? 10 : 200));
+        }
+        long delayMs = TimeUnit.NANOSECONDS.toMillis(policy.delayNanos());
+        assertTrue(delayMs >= 9 && delayMs <= 11, "p95 delay was " + delayMs + "ms");
+    }
+
+    @Test
+    void shouldKeepHedgesWithinBudget() {
+        HedgePolicy policy = new HedgePolicy(true, 10, 5, 1);
+
+        assertTrue(policy.tryHedge());
+        assertFalse(policy.tryHedge());
+
+        // Twenty calls earn one hedge at 5%
+        for (int i = 0; i < 20; i++) {
+            policy.onCall();
+        }
+        assertTrue(policy.tryHedge());
+        assertFalse(policy.tryHedge());
+        policy.onHedgeWon();
+
+        assertEquals(2L, policy.hedgesSent());
+        assertEquals(1L, policy.hedgesWon());
+    }
+}
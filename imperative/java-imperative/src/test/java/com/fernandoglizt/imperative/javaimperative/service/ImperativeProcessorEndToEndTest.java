@@ -0,0 +1,103 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.client.JdkHttpDownstreamClient;
+import com.fernandoglizt.imperative.javaimperative.fixture.SlowIoStub;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// ImperativeProcessor over the real JDK client and sockets, against the in-process slow-io stub
+class ImperativeProcessorEndToEndTest {
+
+    private SlowIoStub slowIo;
+    private JdkHttpDownstreamClient client;
+    private ExecutorService executor;
+    private ExecutorService platformPool;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        slowIo = SlowIoStub.start();
+        client = new JdkHttpDownstreamClient(Duration.ofSeconds(10), 256);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        platformPool = Executors.newFixedThreadPool(128);
+        scheduler = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        executor.shutdownNow();
+        platformPool.shutdownNow();
+        scheduler.shutdownNow();
+        slowIo.close();
+    }
+
+    private ImperativeProcessor processor(String callMode) {
+        InflightLimiter limiter = new InflightLimiter(256, 4, 64);
+        RetryPolicy retryPolicy = new RetryPolicy(0, 100, 300, 0.1, 100);
+        AdaptiveLimit adaptiveLimit = new AdaptiveLimit("fixed", 256, 8, 1024, 1000);
+        // Off, as by default: cold-start connects to the stub can exceed slow-call-ms and trip it
+        CircuitBreakers breakers = new CircuitBreakers(false, 100, 20, 50, 1000, 80, 5000, 5);
+        HedgePolicy hedgePolicy = new HedgePolicy(false, 0, 5, 100);
+        CallCoalescer coalescer = new CallCoalescer(1000, 1024);
+        ProcessMetrics metrics = new ProcessMetrics(new SimpleMeterRegistry(), retryPolicy, limiter, breakers,
+            hedgePolicy, coalescer);
+
+        return new ImperativeProcessor(client,
+            List.of(
+                new ExecutorBatchEngine(executor, limiter),
+                new StructuredBatchEngine(limiter, 4, 64),
+                new ExecutorBatchEngine("platform", platformPool, limiter),
+                new CompletableFutureBatchEngine(executor, limiter, 4, 64),
+                new ReactorBatchEngine(executor, limiter, 4, 64)),
+            executor, scheduler, new CancellationStats(), retryPolicy, new DownstreamTargets(4), metrics,
+            limiter, adaptiveLimit, breakers, hedgePolicy, coalescer,
+            new BatchCallRunner(client, executor, limiter, retryPolicy, adaptiveLimit, metrics, 4),
+            "executor", callMode, 200);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"executor", "structured", "platform", "completable-future", "reactor"})
+    void shouldOverlapCallsAcrossBatchesAgainstSlowIo(String engine) {
+        ProcessResponse response = processor("item").processEvents(
+            new ProcessRequest(1024, 100, 200, slowIo.url(), false, engine));
+
+        assertTrue(response.ok());
+        assertEquals(engine, response.engine());
+        assertEquals(1024, response.externalCallsOk());
+        // Serial calls would take 1024 x 200ms; 128-256 in flight take 4-8 rounds
+        assertTrue(response.durationMs() < 20_000, "took " + response.durationMs() + "ms");
+        assertEquals(1024, slowIo.served());
+        // More than one batch's ITEM_CONCURRENCY waited on slow-io at once, never more than POOL_SIZE
+        assertTrue(slowIo.maxPending() > 64, "max pending was " + slowIo.maxPending());
+        assertTrue(slowIo.maxPending() <= 256, "max pending was " + slowIo.maxPending());
+    }
+
+    @Test
+    void shouldCountIdsThatSlowIoFailsInBatchMode() {
+        ProcessResponse response = processor("batch").processEvents(
+            new ProcessRequest(250, 100, 20, slowIo.url() + "?fail_rate=1"));
+
+        assertEquals(250, response.processedEvents());
+        assertEquals(0, response.externalCallsOk());
+        assertEquals(250, response.externalCallsFail());
+        assertEquals(3, slowIo.served());
+    }
+}
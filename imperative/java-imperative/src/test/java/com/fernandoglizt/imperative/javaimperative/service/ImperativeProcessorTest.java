@@ -0,0 +1,237 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.client.BatchReply;
+import com.fernandoglizt.imperative.javaimperative.client.DownstreamClient;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImperativeProcessorTest {
+
+    private static final String URL = "http://slow-io:8080/slow";
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        scheduler = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    // Answers GET number n (0-based, in arrival order) with script.get(n)
+    @FunctionalInterface
+    private interface Script {
+        boolean get(int n) throws Exception;
+    }
+
+    private static final class ScriptedClient implements DownstreamClient {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final Script script;
+
+        ScriptedClient(Script script) {
+            this.script = script;
+        }
+
+        @Override
+        public boolean get(URI uri) throws Exception {
+            return script.get(calls.getAndIncrement());
+        }
+
+        @Override
+        public BatchReply postBatch(URI uri, int startId, int endId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String name() {
+            return "scripted";
+        }
+    }
+
+    private ImperativeProcessor processor(DownstreamClient client, InflightLimiter limiter, HedgePolicy hedgePolicy) {
+        return processor(client, limiter, hedgePolicy, new ExecutorBatchEngine(executor, limiter), 0);
+    }
+
+    private ImperativeProcessor processor(DownstreamClient client, InflightLimiter limiter, HedgePolicy hedgePolicy,
+                                          BatchEngine engine, int maxRetries) {
+        RetryPolicy retryPolicy = new RetryPolicy(maxRetries, 10, 20, 0.1, 100);
+        AdaptiveLimit adaptiveLimit = new AdaptiveLimit("fixed", limiter.globalLimit(), 1, 1024, 1000);
+        CircuitBreakers breakers = new CircuitBreakers(false, 100, 20, 50, 1000, 80, 5000, 5);
+        CallCoalescer coalescer = new CallCoalescer(1000, 1024);
+        ProcessMetrics metrics = new ProcessMetrics(new SimpleMeterRegistry(), retryPolicy, limiter, breakers,
+            hedgePolicy, coalescer);
+        return new ImperativeProcessor(client, List.of(engine),
+            executor, scheduler, new CancellationStats(), retryPolicy, new DownstreamTargets(4), metrics,
+            limiter, adaptiveLimit, breakers, hedgePolicy, coalescer,
+            new BatchCallRunner(client, executor, limiter, retryPolicy, adaptiveLimit, metrics, 4),
+            engine.name(), "item", 16);
+    }
+
+    @Test
+    void shouldKeepTheSlowSuccessWhenTheHedgeFailsFirst() {
+        // The primary answers 2xx after 200ms; its hedge, sent after 20ms, fails at once
+        ScriptedClient client = new ScriptedClient(n -> {
+            if (n == 0) {
+                Thread.sleep(200);
+                return true;
+            }
+            throw new IOException("connection reset");
+        });
+        InflightLimiter limiter = new InflightLimiter(8, 1, 1);
+
+        ProcessResponse response = processor(client, limiter, new HedgePolicy(true, 20, 100, 100))
+            .processEvents(new ProcessRequest(1, 1, 0, URL));
+
+        assertEquals(1, response.externalCallsOk());
+        assertEquals(0, response.externalCallsFail());
+        assertEquals(1, response.hedgesSent());
+        assertEquals(0, response.hedgesWon());
+        assertEquals(0, limiter.inflight());
+    }
+
+    @Test
+    void shouldFailOnlyOnceEveryCopyHasFailed() {
+        // The hedge fails at once and the primary fails after 200ms: one failure, reported after both
+        ScriptedClient client = new ScriptedClient(n -> {
+            if (n == 0) {
+                Thread.sleep(200);
+            }
+            return false;
+        });
+        InflightLimiter limiter = new InflightLimiter(8, 1, 1);
+
+        ProcessResponse response = processor(client, limiter, new HedgePolicy(true, 20, 100, 100))
+            .processEvents(new ProcessRequest(1, 1, 0, URL));
+
+        assertEquals(0, response.externalCallsOk());
+        assertEquals(1, response.externalCallsFail());
+        assertEquals(1, response.hedgesSent());
+        assertEquals(2, client.calls.get());
+        assertEquals(0, limiter.inflight());
+    }
+
+    @Test
+    void shouldSkipTheHedgeWhenTheLimiterIsFull() {
+        ScriptedClient client = new ScriptedClient(n -> {
+            Thread.sleep(100);
+            return true;
+        });
+        // The primary holds the only process-wide slot
+        InflightLimiter limiter = new InflightLimiter(1, 1, 1);
+
+        ProcessResponse response = processor(client, limiter, new HedgePolicy(true, 20, 100, 100))
+            .processEvents(new ProcessRequest(1, 1, 0, URL));
+
+        assertEquals(1, response.externalCallsOk());
+        assertEquals(0, response.hedgesSent());
+        assertEquals(1, client.calls.get());
+        assertEquals(0, limiter.inflight());
+    }
+
+    // Two coalesced runs share one 500ms call, started by the first
+    private static ScriptedClient sharedSlowCall() {
+        return new ScriptedClient(n -> {
+            Thread.sleep(500);
+            return true;
+        });
+    }
+
+    private static void awaitCalls(ScriptedClient client, int calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.calls.get() < calls && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(calls, client.calls.get());
+    }
+
+    @Test
+    void shouldKeepACoalescedCallRunningWhenTheRunThatStartedItIsCancelled() throws Exception {
+        ScriptedClient client = sharedSlowCall();
+        ImperativeProcessor processor = processor(client, new InflightLimiter(8, 1, 1), new HedgePolicy(false, 0, 5, 100));
+        ProcessRun first = processor.newRun(new ProcessRequest(1, 1, 0, URL, true));
+        ProcessRun second = processor.newRun(new ProcessRequest(1, 1, 0, URL, true));
+
+        CompletableFuture<ProcessResponse> firstResponse = processor.processAsync(first);
+        awaitCalls(client, 1);
+        CompletableFuture<ProcessResponse> secondResponse = processor.processAsync(second);
+        Thread.sleep(50);
+        first.cancel("client-disconnect");
+
+        ProcessResponse cancelled = firstResponse.get(5, TimeUnit.SECONDS);
+        assertEquals(0, cancelled.externalCallsOk());
+        assertTrue(cancelled.durationMs() < 400, "took " + cancelled.durationMs() + "ms");
+        ProcessResponse shared = secondResponse.get(5, TimeUnit.SECONDS);
+        assertEquals(1, shared.externalCallsOk());
+        assertEquals(0, shared.externalCallsFail());
+        assertEquals(1, client.calls.get());
+    }
+
+    @Test
+    void shouldStopWaitingOnACoalescedCallWhenTheWaitingRunIsCancelled() throws Exception {
+        ScriptedClient client = sharedSlowCall();
+        ImperativeProcessor processor = processor(client, new InflightLimiter(8, 1, 1), new HedgePolicy(false, 0, 5, 100));
+        ProcessRun first = processor.newRun(new ProcessRequest(1, 1, 0, URL, true));
+        ProcessRun second = processor.newRun(new ProcessRequest(1, 1, 0, URL, true));
+
+        CompletableFuture<ProcessResponse> firstResponse = processor.processAsync(first);
+        awaitCalls(client, 1);
+        CompletableFuture<ProcessResponse> secondResponse = processor.processAsync(second);
+        Thread.sleep(50);
+        second.cancel("client-disconnect");
+
+        ProcessResponse cancelled = secondResponse.get(5, TimeUnit.SECONDS);
+        assertEquals(0, cancelled.externalCallsOk());
+        assertEquals(0, cancelled.externalCallsFail());
+        assertTrue(cancelled.durationMs() < 400, "took " + cancelled.durationMs() + "ms");
+        assertEquals(1, firstResponse.get(5, TimeUnit.SECONDS).externalCallsOk());
+        assertEquals(1, client.calls.get());
+    }
+
+    @Test
+    void shouldRetryOnTheEngineExecutor() throws Exception {
+        // The first attempt fails; the retry must run on the engine's platform pool, not a virtual thread
+        List<Boolean> virtual = new CopyOnWriteArrayList<>();
+        ScriptedClient client = new ScriptedClient(n -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            return n > 0;
+        });
+        InflightLimiter limiter = new InflightLimiter(8, 1, 1);
+        ExecutorService platform = Executors.newFixedThreadPool(2);
+        try {
+            ProcessResponse response = processor(client, limiter, new HedgePolicy(false, 0, 5, 100),
+                new ExecutorBatchEngine("platform", platform, limiter), 1)
+                .processEvents(new ProcessRequest(1, 1, 0, URL));
+
+            assertEquals(1, response.externalCallsOk());
+            assertEquals(List.of(false, false), virtual);
+        } finally {
+            platform.shutdownNow();
+        }
+    }
+}
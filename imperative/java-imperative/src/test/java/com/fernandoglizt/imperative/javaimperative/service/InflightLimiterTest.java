@@ -0,0 +1,97 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InflightLimiterTest {
+
+    @Test
+    void shouldCapRequestAtBatchTimesItemConcurrency() throws InterruptedException {
+        InflightLimiter limiter = new InflightLimiter(100, 2, 3);
+        InflightLimiter.RequestPermits permits = limiter.forRequest();
+
+        for (int i = 0; i < 6; i++) {
+            permits.acquire();
+        }
+        assertEquals(6, limiter.inflight());
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                permits.acquire();
+                acquired.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, limiter.queued());
+
+        permits.release();
+        assertTrue(acquired.await(1, TimeUnit.SECONDS));
+        producer.join();
+        assertEquals(0, limiter.queued());
+    }
+
+    @Test
+    void shouldShareGlobalBudgetAcrossRequests() throws InterruptedException {
+        InflightLimiter limiter = new InflightLimiter(2, 4, 64);
+        InflightLimiter.RequestPermits first = limiter.forRequest();
+        InflightLimiter.RequestPermits second = limiter.forRequest();
+
+        first.acquire();
+        first.acquire();
+
+        Thread producer = Thread.ofVirtual().start(() -> {
+            try {
+                second.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread.sleep(100);
+        assertTrue(producer.isAlive());
+
+        first.release();
+        producer.join(1000);
+        assertFalse(producer.isAlive());
+        assertEquals(2, limiter.inflight());
+    }
+
+    @Test
+    void shouldResizeGlobalBudget() throws InterruptedException {
+        InflightLimiter limiter = new InflightLimiter(4, 4, 64);
+        InflightLimiter.RequestPermits permits = limiter.forRequest();
+        for (int i = 0; i < 4; i++) {
+            permits.acquire();
+        }
+
+        limiter.resize(2);
+        assertEquals(2, limiter.globalLimit());
+        permits.release();
+        permits.release();
+        permits.release();
+        assertEquals(1, limiter.inflight());
+
+        limiter.resize(6);
+        for (int i = 0; i < 5; i++) {
+            permits.acquire();
+        }
+        assertEquals(6, limiter.inflight());
+    }
+
+    @Test
+    void shouldRejectNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new InflightLimiter(0, 4, 64));
+        assertThrows(IllegalArgumentException.class, () -> new InflightLimiter(128, 0, 64));
+    }
+}
@@ -0,0 +1,117 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.model.LatencySummary;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import com.fernandoglizt.imperative.javaimperative.model.ProcessResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobRegistryTest {
+
+    private static final ProcessRequest REQUEST = new ProcessRequest(10, 5, 0, null);
+
+    private final ImperativeProcessor processor = mock(ImperativeProcessor.class);
+    private final List<ProcessRun> runs = new ArrayList<>();
+    private final List<CompletableFuture<ProcessResponse>> pending = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(processor.newRun(any())).thenAnswer(inv -> {
+            ProcessRun run = new ProcessRun(inv.getArgument(0), null);
+            runs.add(run);
+            return run;
+        });
+        when(processor.processAsync(any())).thenAnswer(inv -> {
+            CompletableFuture<ProcessResponse> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+    }
+
+    @Test
+    void shouldRejectOverMaxRunningAndAdmitOnceOneFinishes() {
+        JobRegistry jobs = new JobRegistry(processor, 8, 2, 60_000);
+        JobRegistry.Job first = jobs.submit(REQUEST);
+        jobs.submit(REQUEST);
+
+        assertThrows(RejectedExecutionException.class, () -> jobs.submit(REQUEST));
+
+        pending.get(0).complete(response(null));
+        assertEquals(JobRegistry.State.SUCCEEDED, first.state());
+        assertEquals(10, first.status().processedEvents());
+        assertNotNull(jobs.submit(REQUEST));
+        assertEquals(2, jobs.running());
+    }
+
+    @Test
+    void shouldEvictOldestFinishedJobWhenFull() {
+        JobRegistry jobs = new JobRegistry(processor, 2, 2, 60_000);
+        JobRegistry.Job oldest = jobs.submit(REQUEST);
+        JobRegistry.Job newer = jobs.submit(REQUEST);
+        pending.get(0).complete(response(null));
+        pending.get(1).complete(response(null));
+
+        JobRegistry.Job third = jobs.submit(REQUEST);
+
+        assertNull(jobs.get(oldest.id()));
+        assertNotNull(jobs.get(newer.id()));
+        assertNotNull(jobs.get(third.id()));
+    }
+
+    @Test
+    void shouldExpireFinishedJobsAfterTtl() {
+        JobRegistry jobs = new JobRegistry(processor, 8, 2, 0);
+        JobRegistry.Job job = jobs.submit(REQUEST);
+        assertNotNull(jobs.get(job.id()));
+
+        pending.get(0).complete(response(null));
+
+        assertNull(jobs.get(job.id()));
+    }
+
+    @Test
+    void shouldCancelRunningJobThenRemoveItOnceFinished() {
+        JobRegistry jobs = new JobRegistry(processor, 8, 2, 60_000);
+        JobRegistry.Job job = jobs.submit(REQUEST);
+
+        jobs.cancel(job.id());
+        assertTrue(runs.get(0).isCancelled());
+        pending.get(0).complete(response(runs.get(0).cancelReason()));
+        assertEquals(JobRegistry.State.CANCELLED, jobs.get(job.id()).state());
+
+        jobs.cancel(job.id());
+        assertNull(jobs.get(job.id()));
+    }
+
+    @Test
+    void shouldReportFailure() {
+        JobRegistry jobs = new JobRegistry(processor, 8, 2, 60_000);
+        JobRegistry.Job job = jobs.submit(REQUEST);
+
+        pending.get(0).completeExceptionally(new IllegalStateException("boom"));
+
+        assertEquals(JobRegistry.State.FAILED, job.state());
+        assertEquals("boom", job.status().error());
+        assertEquals(0, jobs.running());
+    }
+
+    private static ProcessResponse response(String cancelled) {
+        LatencySummary latency = new LatencySummary(10, 1, 1, 1, 1, 1, 1);
+        return ProcessResponse.success(REQUEST, 10, 2, 10, 0, 5, 1.0, 2.0,
+            0, 0, 0, 0, cancelled, latency, latency, "executor", "test");
+    }
+}
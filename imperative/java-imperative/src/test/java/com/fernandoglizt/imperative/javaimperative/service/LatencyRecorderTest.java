@@ -0,0 +1,53 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.model.LatencySummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyRecorderTest {
+
+    @Test
+    void shouldReportPercentilesWithinBucketPrecision() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int ms = 1; ms <= 1000; ms++) {
+            recorder.recordNanos(ms * 1_000_000L);
+        }
+
+        LatencySummary summary = recorder.summary();
+        assertEquals(1000, summary.count());
+        assertEquals(500.0, summary.p50(), 500.0 * 0.016);
+        assertEquals(990.0, summary.p99(), 990.0 * 0.016);
+        assertEquals(1000.0, summary.max());
+    }
+
+    @Test
+    void shouldMapEveryValueIntoItsBucket() {
+        for (long micros : new long[]{0, 1, 127, 128, 129, 255, 256, 1_000, 123_456, (1L << 37) - 1}) {
+            int index = LatencyRecorder.index(micros);
+            long low = index == 0 ? 0 : LatencyRecorder.highestValue(index - 1) + 1;
+            assertTrue(micros >= low && micros <= LatencyRecorder.highestValue(index), "value " + micros);
+        }
+    }
+
+    @Test
+    void shouldCountConcurrentRecordings() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < 100; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        recorder.recordNanos(50_000_000L);
+                    }
+                });
+            }
+        }
+
+        assertEquals(100_000, recorder.count());
+        assertEquals(50.0, recorder.summary().p999(), 50.0 * 0.016);
+    }
+}
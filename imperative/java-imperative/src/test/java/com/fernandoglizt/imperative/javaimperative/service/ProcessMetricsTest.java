@@ -0,0 +1,49 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProcessMetricsTest {
+
+    @Test
+    void shouldRecordCallsByOutcomeAndReadRetriesAtScrapeTime() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RetryPolicy retryPolicy = new RetryPolicy(2, 100, 300, 0.1, 100);
+        ProcessMetrics metrics = new ProcessMetrics(registry, retryPolicy, new InflightLimiter(128, 4, 64),
+            new CircuitBreakers(true, 100, 20, 50, 1000, 80, 5000, 5),
+            new HedgePolicy(false, 0, 5, 100), new CallCoalescer(1000, 1024));
+
+        long start = System.nanoTime();
+        metrics.recordCall(start, true);
+        metrics.recordCall(start, true);
+        metrics.recordCall(start, false);
+        retryPolicy.tryRetry(0);
+
+        assertEquals(2, registry.get("downstream.call").tag("outcome", "ok").timer().count());
+        assertEquals(1, registry.get("downstream.call").tag("outcome", "fail").timer().count());
+        assertEquals(1.0, registry.get("downstream.retries").tag("result", "issued").functionCounter().count());
+        assertEquals(0.0, registry.get("downstream.inflight").gauge().value());
+    }
+
+    @Test
+    void shouldRecordRunAndBatchDurations() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProcessMetrics metrics = new ProcessMetrics(registry, new RetryPolicy(1, 100, 300, 0.1, 100),
+            new InflightLimiter(128, 4, 64), new CircuitBreakers(true, 100, 20, 50, 1000, 80, 5000, 5),
+            new HedgePolicy(false, 0, 5, 100), new CallCoalescer(1000, 1024));
+
+        metrics.recordBatch(5_000_000);
+        metrics.recordRun("executor", 250, 4000.0);
+        metrics.recordRun("reactor", 100, 9000.0);
+
+        assertEquals(1, registry.get("process.batch.duration").timer().count());
+        assertEquals(250.0, registry.get("process.run.duration").tag("engine", "executor").timer()
+            .totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(4000.0, registry.get("process.run.events.per.sec").tag("engine", "executor").summary().max());
+        assertEquals(1, registry.get("process.run.duration").tag("engine", "reactor").timer().count());
+    }
+}
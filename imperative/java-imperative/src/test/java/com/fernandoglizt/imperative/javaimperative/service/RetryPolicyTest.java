@@ -0,0 +1,50 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+
+    @Test
+    void shouldNotExceedConfiguredRetries() {
+        RetryPolicy policy = new RetryPolicy(2, 100, 300, 0.1, 100);
+
+        assertTrue(policy.tryRetry(0));
+        assertTrue(policy.tryRetry(1));
+        assertFalse(policy.tryRetry(2));
+    }
+
+    @Test
+    void shouldSuppressRetriesOnceBudgetIsSpent() {
+        RetryPolicy policy = new RetryPolicy(1, 100, 300, 0.1, 2);
+
+        assertTrue(policy.tryRetry(0));
+        assertTrue(policy.tryRetry(0));
+        assertFalse(policy.tryRetry(0));
+
+        // Ten first attempts earn one retry at a 10% ratio
+        for (int i = 0; i < 10; i++) {
+            policy.onCall();
+        }
+        assertTrue(policy.tryRetry(0));
+        assertFalse(policy.tryRetry(0));
+
+        assertEquals(3L, policy.snapshot().get("retries_issued"));
+        assertEquals(2L, policy.snapshot().get("retries_suppressed"));
+    }
+
+    @Test
+    void shouldApplyFullJitterCappedBackoff() {
+        RetryPolicy policy = new RetryPolicy(5, 100, 300, 0.1, 100);
+
+        for (int i = 0; i < 1_000; i++) {
+            long first = policy.backoffMillis(0);
+            long later = policy.backoffMillis(4);
+            assertTrue(first >= 0 && first <= 100, "first backoff " + first);
+            assertTrue(later >= 0 && later <= 300, "capped backoff " + later);
+        }
+    }
+}
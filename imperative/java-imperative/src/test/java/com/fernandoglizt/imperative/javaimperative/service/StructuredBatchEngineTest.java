@@ -0,0 +1,86 @@
+package com.fernandoglizt.imperative.javaimperative.service;
+
+import com.fernandoglizt.imperative.javaimperative.model.ProcessRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StructuredBatchEngineTest {
+
+    @Test
+    void shouldProcessEveryItemWithinConcurrencyCaps() throws InterruptedException {
+        StructuredBatchEngine engine = new StructuredBatchEngine(new InflightLimiter(128, 2, 3), 2, 3);
+        ProcessRun run = new ProcessRun(new ProcessRequest(50, 10, 0, null), null);
+        AtomicInteger inflight = new AtomicInteger();
+        AtomicInteger maxInflight = new AtomicInteger();
+
+        engine.run(run, item -> {
+            maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                return CompletableFuture.completedFuture(item % 4 != 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableFuture.completedFuture(false);
+            } finally {
+                inflight.decrementAndGet();
+            }
+        });
+
+        assertEquals(50, run.processedEvents());
+        assertEquals(5, run.batchesStarted());
+        assertEquals(25, run.callsOk());
+        assertEquals(25, run.callsFail());
+        assertTrue(maxInflight.get() <= 6, "max inflight was " + maxInflight.get());
+        assertTrue(run.batchMillisMax() > 0);
+    }
+
+    @Test
+    void shouldEndTheItemOfACallThatThrows() throws InterruptedException {
+        InflightLimiter limiter = new InflightLimiter(16, 2, 4);
+        StructuredBatchEngine engine = new StructuredBatchEngine(limiter, 2, 4);
+        ProcessRun run = new ProcessRun(new ProcessRequest(100, 30, 0, null), null);
+        AtomicInteger batchesDone = new AtomicInteger();
+        run.onBatchDone(result -> batchesDone.incrementAndGet());
+
+        engine.run(run, item -> {
+            if (item % 4 == 0) {
+                throw new IllegalStateException("boom");
+            }
+            return CompletableFuture.completedFuture(true);
+        });
+
+        assertEquals(100, run.processedEvents());
+        assertEquals(50, run.callsOk());
+        assertEquals(50, run.callsFail());
+        assertEquals(4, batchesDone.get());
+        assertEquals(0, limiter.inflight());
+    }
+
+    @Test
+    void shouldCancelInFlightCallsAtDeadline() throws InterruptedException {
+        StructuredBatchEngine engine = new StructuredBatchEngine(new InflightLimiter(128, 4, 64), 4, 64);
+        ProcessRun run = new ProcessRun(new ProcessRequest(10_000, 100, 0, null), Instant.now().plusMillis(200));
+
+        long start = System.nanoTime();
+        engine.run(run, item -> {
+            try {
+                Thread.sleep(10_000);
+                return CompletableFuture.completedFuture(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableFuture.completedFuture(false);
+            }
+        });
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 5_000, "run took " + elapsedMs + "ms");
+        assertEquals(0, run.callsOk());
+        assertTrue(run.processedEvents() < 10_000);
+    }
+}
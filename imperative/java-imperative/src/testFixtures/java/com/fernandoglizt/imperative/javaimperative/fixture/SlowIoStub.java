@@ -0,0 +1,291 @@
+package com.fernandoglizt.imperative.javaimperative.fixture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Go slow-io service, for JUnit and JMH runs without Docker. It follows
+ * the same contract: GET /slow?delay_ms=&jitter_ms=&code=, POST /slow/batch?delay_ms=&jitter_ms=
+ * &per_item_us=&fail_rate=&code= with {"ids":[...]}, and GET /healthz. Delays are timers, not
+ * sleeping threads: the exchange is parked on a scheduler and answered when it fires, so tens of
+ * thousands of requests can be pending at once. Each connection is served on a virtual thread
+ * only while its request is read and its response written.
+ */
+public final class SlowIoStub implements AutoCloseable {
+
+    private static final int MAX_DELAY_MS = 10_000;
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    static {
+        // Without TCP_NODELAY the JDK server's separate header and body writes wait on delayed ACKs (~40 ms per reply)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledThreadPoolExecutor timers;
+    private final int baseDelayMs;
+    private final String instance = "slow-io-stub-" + UUID.randomUUID();
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger maxPending = new AtomicInteger();
+
+    private SlowIoStub(int port, int baseDelayMs) throws IOException {
+        this.baseDelayMs = Math.min(MAX_DELAY_MS, Math.max(0, baseDelayMs));
+        this.timers = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform()
+            .name("slow-io-stub-timer")
+            .daemon(true)
+            .factory());
+        this.timers.setRemoveOnCancelPolicy(true);
+        // A deep accept backlog: load tests open connections in bursts
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 4096);
+        this.server.setExecutor(handlers);
+        this.server.createContext("/healthz", this::health);
+        this.server.createContext("/slow/batch", this::slowBatch);
+        this.server.createContext("/slow", this::slow);
+        this.server.start();
+    }
+
+    // Ephemeral port, BASE_DELAY_MS=50 like slow-io
+    public static SlowIoStub start() throws IOException {
+        return start(0, 50);
+    }
+
+    public static SlowIoStub start(int port, int baseDelayMs) throws IOException {
+        return new SlowIoStub(port, baseDelayMs);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    // Base URL for ProcessRequest.downstreamUrl
+    public String url() {
+        return "http://127.0.0.1:" + port() + "/slow";
+    }
+
+    public long served() {
+        return served.get();
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    // Highest number of requests waiting on their delay at the same time
+    public int maxPending() {
+        return maxPending.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        timers.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        ObjectNode body = JSON.createObjectNode()
+            .put("ok", true)
+            .put("ts", Instant.now().toString());
+        send(exchange, 200, body);
+    }
+
+    private void slow(HttpExchange exchange) throws IOException {
+        if (!"/slow".equals(exchange.getRequestURI().getPath())) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        Map<String, String> query = query(exchange.getRequestURI());
+        int jitterMs = Math.max(0, intParam(query, "jitter_ms", 0));
+        int delayMs = delay(query, jitterMs);
+        int code = code(query);
+
+        later(exchange, delayMs, () -> {
+            ObjectNode body = reply(exchange, code, delayMs, jitterMs);
+            send(exchange, code, body);
+        });
+    }
+
+    private void slowBatch(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "POST");
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+        JsonNode ids;
+        try (InputStream in = exchange.getRequestBody()) {
+            ids = JSON.readTree(in).path("ids");
+        } catch (IOException e) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+
+        Map<String, String> query = query(exchange.getRequestURI());
+        int jitterMs = Math.max(0, intParam(query, "jitter_ms", 0));
+        int delayMs = delay(query, jitterMs);
+        long perItemUs = Math.max(0, intParam(query, "per_item_us", 0));
+        double failRate = doubleParam(query, "fail_rate");
+        int code = code(query);
+        long delayUs = delayMs * 1_000L + perItemUs * ids.size();
+
+        ArrayNode failed = JSON.createArrayNode();
+        if (failRate > 0) {
+            for (JsonNode id : ids) {
+                if (ThreadLocalRandom.current().nextDouble() < failRate) {
+                    failed.add(id.asInt());
+                }
+            }
+        }
+
+        laterMicros(exchange, delayUs, () -> {
+            ObjectNode body = reply(exchange, code, delayMs, jitterMs);
+            body.put("count", ids.size());
+            body.set("failed", failed);
+            send(exchange, code, body);
+        });
+    }
+
+    @FunctionalInterface
+    private interface Response {
+        void send() throws IOException;
+    }
+
+    private void later(HttpExchange exchange, int delayMs, Response response) {
+        laterMicros(exchange, delayMs * 1_000L, response);
+    }
+
+    // The timer only hands the exchange back to a handler thread, so a slow reader never stalls other timers
+    private void laterMicros(HttpExchange exchange, long delayUs, Response response) {
+        maxPending.accumulateAndGet(pending.incrementAndGet(), Math::max);
+        Runnable respond = () -> {
+            pending.decrementAndGet();
+            try {
+                response.send();
+            } catch (IOException e) {
+                exchange.close();
+            }
+        };
+        if (delayUs == 0) {
+            respond.run();
+            return;
+        }
+        timers.schedule(() -> handlers.execute(respond), delayUs, TimeUnit.MICROSECONDS);
+    }
+
+    private ObjectNode reply(HttpExchange exchange, int code, int delayMs, int jitterMs) {
+        String requestId = exchange.getRequestHeaders().getFirst("X-Request-Id");
+        if (requestId == null) {
+            requestId = UUID.randomUUID().toString();
+        }
+        exchange.getResponseHeaders().set("X-Instance", instance);
+        exchange.getResponseHeaders().set("X-Request-Id", requestId);
+        return JSON.createObjectNode()
+            .put("ok", code >= 200 && code < 300)
+            .put("delay_ms", delayMs)
+            .put("jitter_ms", jitterMs)
+            .put("code", code)
+            .put("ts", Instant.now().toString())
+            .put("instance", instance)
+            .put("request_id", requestId)
+            .put("path", exchange.getRequestURI().getPath());
+    }
+
+    private void send(HttpExchange exchange, int code, JsonNode body) throws IOException {
+        served.incrementAndGet();
+        byte[] bytes = JSON.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        // 1xx, 204 and 304 carry no body
+        if (code < 200 || code == 204 || code == 304) {
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // delay_ms (capped at 10s, BASE_DELAY_MS when absent) plus uniform 0..jitter_ms
+    private int delay(Map<String, String> query, int jitterMs) {
+        int delayMs = Math.min(MAX_DELAY_MS, Math.max(0, intParam(query, "delay_ms", baseDelayMs)));
+        if (jitterMs > 0) {
+            delayMs += ThreadLocalRandom.current().nextInt(jitterMs + 1);
+        }
+        return delayMs;
+    }
+
+    private static int code(Map<String, String> query) {
+        int code = intParam(query, "code", 200);
+        return code < 100 || code > 599 ? 200 : code;
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.putIfAbsent(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    // 0 when absent or outside [0, 1]
+    private static double doubleParam(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            double parsed = Double.parseDouble(value);
+            return parsed >= 0 && parsed <= 1 ? parsed : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.fernandoglizt.reactive.javareactor.benchmark;
+
+import com.fernandoglizt.reactive.javareactor.config.ConnectionPoolStats;
+import com.fernandoglizt.reactive.javareactor.config.NettyTransport;
+import com.fernandoglizt.reactive.javareactor.fixture.SlowIoStub;
+import com.fernandoglizt.reactive.javareactor.model.ProcessRequest;
+import com.fernandoglizt.reactive.javareactor.model.ProcessResponse;
+import com.fernandoglizt.reactive.javareactor.service.AdaptiveLimit;
+import com.fernandoglizt.reactive.javareactor.service.CallCoalescer;
+import com.fernandoglizt.reactive.javareactor.service.CancellationStats;
+import com.fernandoglizt.reactive.javareactor.service.CircuitBreakers;
+import com.fernandoglizt.reactive.javareactor.service.DownstreamTargets;
+import com.fernandoglizt.reactive.javareactor.service.FairQueuing;
+import com.fernandoglizt.reactive.javareactor.service.HedgePolicy;
+import com.fernandoglizt.reactive.javareactor.service.ProcessMetrics;
+import com.fernandoglizt.reactive.javareactor.service.ReactiveProcessor;
+import com.fernandoglizt.reactive.javareactor.service.RetryPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+
+/**
+ * Full {@link ReactiveProcessor#processEvents} over real sockets against {@link SlowIoStub}, the
+ * in-process slow-io: the Netty client, the connection pool and HTTP parsing are part of the score,
+ * and io_delay_ms=0 isolates them from the simulated downstream latency. No Docker needed.
+ */
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    @Param({"2000"})
+    private int count;
+
+    @Param({"100"})
+    private int batch;
+
+    @Param({"0", "50"})
+    private int ioDelayMs;
+
+    @Param({"item", "batch"})
+    private String callMode;
+
+    private SlowIoStub slowIo;
+    private NettyTransport transport;
+    private ConnectionProvider pool;
+    private ReactiveProcessor processor;
+
+    @Setup
+    public void setUp() throws IOException {
+        slowIo = SlowIoStub.start();
+        transport = new NettyTransport("nio", "shared", 1, 1);
+        pool = ConnectionProvider.builder("slow-io-stub")
+                .maxConnections(256)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        RetryPolicy retryPolicy = new RetryPolicy(1, 100, 300, 0.1, 100);
+        // Breaker off, its default: a tripped host would turn measured runs into fast-fails
+        CircuitBreakers breakers = new CircuitBreakers(false, 100, 20, 50, 1000, 80, 5000, 5);
+        HedgePolicy hedgePolicy = new HedgePolicy(false, 0, 5, 100);
+        CallCoalescer coalescer = new CallCoalescer(1000, 1024);
+        ProcessMetrics metrics = new ProcessMetrics(new SimpleMeterRegistry(), retryPolicy,
+                new ConnectionPoolStats(), breakers, hedgePolicy, coalescer, transport);
+
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool).runOn(transport.clientLoops())))
+                .build();
+
+        processor = new ReactiveProcessor(webClient, new CancellationStats(), retryPolicy,
+                new DownstreamTargets(64), metrics, new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers,
+                hedgePolicy, coalescer, new FairQueuing("request", ""), 4, 64, 0, callMode);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.dispose();
+        transport.destroy();
+        slowIo.close();
+    }
+
+    @Benchmark
+    public ProcessResponse processEvents() {
+        return processor.processEvents(new ProcessRequest(count, batch, ioDelayMs, slowIo.url())).block();
+    }
+}
@@ -0,0 +1,101 @@
+package com.fernandoglizt.reactive.javareactor.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fernandoglizt.reactive.javareactor.model.ProcessResponse;
+import com.fernandoglizt.reactive.javareactor.service.BatchRange;
+import com.fernandoglizt.reactive.javareactor.service.DownstreamTargets;
+import com.fernandoglizt.reactive.javareactor.service.LatencyRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * CPU-side stages of a run without any downstream call: the range -> map -> filter -> batch -> reduce
+ * pipeline (buffer(batch) as a baseline against the BatchRange descriptors the processor uses),
+ * batch creation, target URL resolution and the response summary, built and serialized.
+ */
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+
+    private static final String DOWNSTREAM_URL = "http://slow-io:8080/slow";
+
+    @Param({"10000"})
+    private int count;
+
+    @Param({"100", "1000"})
+    private int batch;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyRecorder latency = new LatencyRecorder();
+    private DownstreamTargets targets;
+    private int nextDelay;
+
+    @Setup
+    public void setUp() {
+        targets = new DownstreamTargets(64);
+        for (int i = 0; i < 10_000; i++) {
+            latency.recordNanos(1_000_000L + i * 1_000L);
+        }
+    }
+
+    @Benchmark
+    public Long bufferPipeline() {
+        return Flux.range(1, count)
+                .map(i -> i * 2)
+                .filter(i -> i % 2 == 0)
+                .buffer(batch)
+                .map(List::size)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    @Benchmark
+    public Long batchRangePipeline() {
+        return Flux.range(0, BatchRange.countFor(count, batch))
+                .map(index -> BatchRange.at(index, count, batch))
+                .flatMap(range -> Flux.range(range.start(), range.length())
+                        .map(i -> i * 2)
+                        .filter(i -> i % 2 == 0)
+                        .count())
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    @Benchmark
+    public void batchCreation(Blackhole blackhole) {
+        int batches = BatchRange.countFor(count, batch);
+        for (int index = 0; index < batches; index++) {
+            blackhole.consume(BatchRange.at(index, count, batch));
+        }
+    }
+
+    @Benchmark
+    public URI resolveCachedTarget() {
+        return targets.resolve(DOWNSTREAM_URL, 50);
+    }
+
+    // 1024 distinct delays over a 64-entry cache: every call builds and parses the URL
+    @Benchmark
+    public URI resolveUncachedTarget() {
+        nextDelay = (nextDelay + 1) & 1023;
+        return targets.resolve(DOWNSTREAM_URL, nextDelay);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeResponse() throws Exception {
+        ProcessResponse response = new ProcessResponse(true, count, batch, 50, DOWNSTREAM_URL, count,
+                BatchRange.countFor(count, batch), count, 0, 1_000, count, Instant.now().toString(),
+                "bench", "webflux non-blocking");
+        response.setLatencyFirstAttemptMs(latency.summary());
+        response.setLatencyWithRetriesMs(latency.summary());
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,82 @@
+package com.fernandoglizt.reactive.javareactor.benchmark;
+
+import com.fernandoglizt.reactive.javareactor.config.ConnectionPoolStats;
+import com.fernandoglizt.reactive.javareactor.config.NettyTransport;
+import com.fernandoglizt.reactive.javareactor.model.ProcessRequest;
+import com.fernandoglizt.reactive.javareactor.model.ProcessResponse;
+import com.fernandoglizt.reactive.javareactor.service.AdaptiveLimit;
+import com.fernandoglizt.reactive.javareactor.service.CallCoalescer;
+import com.fernandoglizt.reactive.javareactor.service.CancellationStats;
+import com.fernandoglizt.reactive.javareactor.service.CircuitBreakers;
+import com.fernandoglizt.reactive.javareactor.service.DownstreamTargets;
+import com.fernandoglizt.reactive.javareactor.service.FairQueuing;
+import com.fernandoglizt.reactive.javareactor.service.HedgePolicy;
+import com.fernandoglizt.reactive.javareactor.service.ProcessMetrics;
+import com.fernandoglizt.reactive.javareactor.service.ReactiveProcessor;
+import com.fernandoglizt.reactive.javareactor.service.RetryPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Full {@link ReactiveProcessor#processEvents} against an in-process downstream that answers 200 at
+ * once (an exchange function, no socket), so the score is the pipeline's own cost per run: flatMaps,
+ * permits, retry and breaker bookkeeping, latency histograms and the summary.
+ */
+@State(Scope.Benchmark)
+public class ProcessEventsBenchmark {
+
+    @Param({"10000"})
+    private int count;
+
+    @Param({"100"})
+    private int batch;
+
+    @Param({"item", "batch"})
+    private String callMode;
+
+    private NettyTransport transport;
+    private ReactiveProcessor processor;
+
+    @Setup
+    public void setUp() {
+        transport = new NettyTransport("nio", "shared", 1, 1);
+        RetryPolicy retryPolicy = new RetryPolicy(1, 100, 300, 0.1, 100);
+        CircuitBreakers breakers = new CircuitBreakers(true, 100, 20, 50, 1000, 80, 5000, 5);
+        HedgePolicy hedgePolicy = new HedgePolicy(false, 0, 5, 100);
+        CallCoalescer coalescer = new CallCoalescer(1000, 1024);
+        ProcessMetrics metrics = new ProcessMetrics(new SimpleMeterRegistry(), retryPolicy,
+                new ConnectionPoolStats(), breakers, hedgePolicy, coalescer, transport);
+
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(request.url().getPath().endsWith("/batch")
+                        ? ClientResponse.create(HttpStatus.OK)
+                                .header("Content-Type", "application/json")
+                                .body("{\"ok\":true,\"count\":" + batch + ",\"failed\":[]}")
+                                .build()
+                        : ClientResponse.create(HttpStatus.OK).build()))
+                .build();
+
+        processor = new ReactiveProcessor(webClient, new CancellationStats(), retryPolicy,
+                new DownstreamTargets(64), metrics, new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers,
+                hedgePolicy, coalescer, new FairQueuing("request", ""), 4, 64, 0, callMode);
+    }
+
+    @TearDown
+    public void tearDown() {
+        transport.destroy();
+    }
+
+    @Benchmark
+    public ProcessResponse processEvents() {
+        return processor.processEvents(new ProcessRequest(count, batch, 0, "http://slow-io:8080/slow")).block();
+    }
+}
@@ -0,0 +1,15 @@
+package com.fernandoglizt.reactive.javareactor.config;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EventLoopConfig {
+
+    // The WebFlux server accepts and handles requests on the NETTY_TRANSPORT server group
+    @Bean
+    public NettyServerCustomizer eventLoopServerCustomizer(NettyTransport nettyTransport) {
+        return server -> server.runOn(nettyTransport.serverLoops());
+    }
+}
@@ -0,0 +1,239 @@
+package com.fernandoglizt.reactive.javareactor.config;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.IOUring;
+import io.netty.incubator.channel.uring.IOUringDatagramChannel;
+import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
+import io.netty.incubator.channel.uring.IOUringServerSocketChannel;
+import io.netty.incubator.channel.uring.IOUringSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.LoopResources;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Event loops of the WebFlux server and the downstream WebClient, replacing Reactor Netty's
+ * global defaults:
+ * <ul>
+ *   <li>NETTY_TRANSPORT: nio, epoll, io_uring or auto (io_uring, then epoll, then nio). A native
+ *       transport that cannot load here (other OS, musl, seccomp) falls back down that chain and
+ *       the reason is reported in /info.</li>
+ *   <li>NETTY_CLIENT_LOOPS: shared (the client runs on the server loops, as before) or dedicated
+ *       (a separate group, so downstream I/O and request handling don't queue behind each other).</li>
+ *   <li>NETTY_SERVER_THREADS / NETTY_CLIENT_THREADS: loop sizes; 0 means Reactor Netty's default
+ *       for the server and one thread per available CPU (the container's cpuset / quota) for the client.</li>
+ * </ul>
+ */
+@Component
+public class NettyTransport implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(NettyTransport.class);
+
+    private static final List<String> NATIVE_CHAIN = List.of("io_uring", "epoll", "nio");
+
+    private final String requested;
+    private final String transport;
+    private final String fallbackReason;
+    private final boolean dedicatedClient;
+    private final int serverThreads;
+    private final int clientThreads;
+    private final EventLoopGroup serverGroup;
+    private final EventLoopGroup clientGroup;
+    private final LoopResources serverLoops;
+    private final LoopResources clientLoops;
+
+    public NettyTransport(
+            @Value("${app.netty.transport:nio}") String transport,
+            @Value("${app.netty.client-loops:shared}") String clientLoops,
+            @Value("${app.netty.server-threads:0}") int serverThreads,
+            @Value("${app.netty.client-threads:0}") int clientThreads
+    ) {
+        if (!transport.equals("auto") && !NATIVE_CHAIN.contains(transport)) {
+            throw new IllegalArgumentException(
+                "Unknown app.netty.transport: " + transport + " (expected nio, epoll, io_uring or auto)");
+        }
+        if (!clientLoops.equals("shared") && !clientLoops.equals("dedicated")) {
+            throw new IllegalArgumentException(
+                "Unknown app.netty.client-loops: " + clientLoops + " (expected shared or dedicated)");
+        }
+        if (serverThreads < 0 || clientThreads < 0) {
+            throw new IllegalArgumentException("netty thread counts must be >= 0");
+        }
+        this.requested = transport;
+        this.dedicatedClient = clientLoops.equals("dedicated");
+        this.serverThreads = serverThreads > 0 ? serverThreads : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        this.clientThreads = clientThreads > 0 ? clientThreads : Runtime.getRuntime().availableProcessors();
+
+        String selected = null;
+        StringBuilder reasons = new StringBuilder();
+        int from = transport.equals("auto") ? 0 : NATIVE_CHAIN.indexOf(transport);
+        for (String candidate : NATIVE_CHAIN.subList(from, NATIVE_CHAIN.size())) {
+            String unavailable = unavailabilityCause(candidate);
+            if (unavailable == null) {
+                selected = candidate;
+                break;
+            }
+            if (!reasons.isEmpty()) {
+                reasons.append("; ");
+            }
+            reasons.append(candidate).append(": ").append(unavailable);
+        }
+        this.transport = selected;
+        this.fallbackReason = reasons.isEmpty() ? null : reasons.toString();
+        if (fallbackReason != null && !transport.equals("auto")) {
+            log.warn("Netty transport {} unavailable, using {} ({})", transport, selected, fallbackReason);
+        }
+
+        this.serverGroup = newGroup(selected, this.serverThreads, "server-" + selected);
+        this.clientGroup = dedicatedClient
+            ? newGroup(selected, this.clientThreads, "downstream-" + selected)
+            : serverGroup;
+        this.serverLoops = new Loops(serverGroup, selected);
+        this.clientLoops = new Loops(clientGroup, selected);
+        log.info("Event loops: transport={}, server threads={}, client loops={}", selected, this.serverThreads,
+            dedicatedClient ? "dedicated (" + this.clientThreads + " threads)" : "shared");
+    }
+
+    // Null when the transport can be used in this process
+    private static String unavailabilityCause(String transport) {
+        try {
+            return switch (transport) {
+                case "io_uring" -> IOUring.isAvailable() ? null : String.valueOf(IOUring.unavailabilityCause());
+                case "epoll" -> Epoll.isAvailable() ? null : String.valueOf(Epoll.unavailabilityCause());
+                default -> null;
+            };
+        } catch (LinkageError e) {
+            return e.toString();
+        }
+    }
+
+    private static EventLoopGroup newGroup(String transport, int threads, String name) {
+        ThreadFactory threadFactory = new DefaultThreadFactory(name, true);
+        return switch (transport) {
+            case "io_uring" -> new IOUringEventLoopGroup(threads, threadFactory);
+            case "epoll" -> new EpollEventLoopGroup(threads, threadFactory);
+            default -> new NioEventLoopGroup(threads, threadFactory);
+        };
+    }
+
+    public LoopResources serverLoops() {
+        return serverLoops;
+    }
+
+    public LoopResources clientLoops() {
+        return clientLoops;
+    }
+
+    // Each distinct group once
+    public List<EventLoopGroup> groups() {
+        return dedicatedClient ? List.of(serverGroup, clientGroup) : List.of(serverGroup);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("requested", requested);
+        snapshot.put("transport", transport);
+        snapshot.put("fallback_reason", fallbackReason);
+        snapshot.put("available_processors", Runtime.getRuntime().availableProcessors());
+        snapshot.put("server_threads", serverThreads);
+        snapshot.put("client_loops", dedicatedClient ? "dedicated" : "shared");
+        snapshot.put("client_threads", dedicatedClient ? clientThreads : serverThreads);
+        return snapshot;
+    }
+
+    /**
+     * One fixed group with the channel classes of its transport. Reactor Netty's own lookup would
+     * pick the channels of the preferred native transport on the classpath (io_uring over epoll),
+     * which does not match a group created for another one. Client connections stay colocated on
+     * the calling loop when it belongs to the group, as with Reactor Netty's default resources.
+     */
+    private static final class Loops implements LoopResources {
+
+        private static final Map<String, Map<Class<?>, Class<? extends Channel>>> CHANNELS = Map.of(
+            "nio", Map.of(
+                SocketChannel.class, NioSocketChannel.class,
+                ServerSocketChannel.class, NioServerSocketChannel.class,
+                DatagramChannel.class, NioDatagramChannel.class),
+            "epoll", Map.of(
+                SocketChannel.class, EpollSocketChannel.class,
+                ServerSocketChannel.class, EpollServerSocketChannel.class,
+                DatagramChannel.class, EpollDatagramChannel.class),
+            "io_uring", Map.of(
+                SocketChannel.class, IOUringSocketChannel.class,
+                ServerSocketChannel.class, IOUringServerSocketChannel.class,
+                DatagramChannel.class, IOUringDatagramChannel.class)
+        );
+
+        private final EventLoopGroup group;
+        private final EventLoopGroup colocated;
+        private final String transport;
+
+        Loops(EventLoopGroup group, String transport) {
+            this.group = group;
+            this.colocated = LoopResources.colocate(group);
+            this.transport = transport;
+        }
+
+        @Override
+        public EventLoopGroup onServer(boolean useNative) {
+            return group;
+        }
+
+        @Override
+        public EventLoopGroup onClient(boolean useNative) {
+            return colocated;
+        }
+
+        @Override
+        public <CHANNEL extends Channel> Class<? extends CHANNEL> onChannelClass(Class<CHANNEL> channelType,
+                                                                                EventLoopGroup group) {
+            Class<? extends Channel> channelClass = CHANNELS.get(transport).get(channelType);
+            if (channelClass == null) {
+                throw new IllegalArgumentException(channelType.getName() + " is not supported on " + transport);
+            }
+            return channelClass.asSubclass(channelType);
+        }
+
+        @Override
+        public <CHANNEL extends Channel> CHANNEL onChannel(Class<CHANNEL> channelType, EventLoopGroup group) {
+            try {
+                return onChannelClass(channelType, group).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create " + channelType.getName() + " on " + transport, e);
+            }
+        }
+
+        @Override
+        public boolean daemon() {
+            return true;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (EventLoopGroup group : groups()) {
+            group.shutdownGracefully();
+        }
+    }
+}
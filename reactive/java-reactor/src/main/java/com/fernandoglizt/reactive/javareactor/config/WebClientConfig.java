@@ -9,7 +9,10 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
@@ -20,21 +23,68 @@ public class WebClientConfig {
     @Value("${app.downstream.timeout-ms:2000}")
     private int timeoutMs;
 
-    @Value("${app.flatmap.concurrency:64}")
-    private int concurrency;
+    // http1: one connection per in-flight call; h2c: calls multiplexed as streams over a few connections
+    @Value("${app.downstream.protocol:http1}")
+    private String protocol;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider downstreamConnectionProvider(
+            ConnectionPoolStats poolStats,
+            @Value("${app.downstream.pool.max-connections:256}") int maxConnections,
+            @Value("${app.downstream.pool.pending-acquire-max-count:1024}") int pendingAcquireMaxCount,
+            @Value("${app.downstream.pool.pending-acquire-timeout-ms:5000}") long pendingAcquireTimeoutMs,
+            @Value("${app.downstream.pool.max-idle-time-ms:30000}") long maxIdleTimeMs,
+            @Value("${app.downstream.pool.max-life-time-ms:300000}") long maxLifeTimeMs,
+            @Value("${app.downstream.pool.evict-in-background-ms:30000}") long evictInBackgroundMs,
+            @Value("${app.downstream.pool.lease:fifo}") String lease,
+            @Value("${app.downstream.h2.max-connections:4}") int h2MaxConnections,
+            @Value("${app.downstream.h2.max-concurrent-streams:100}") long h2MaxConcurrentStreams
+    ) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("downstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(evictInBackgroundMs))
+                .metrics(true, () -> poolStats);
+
+        if (isH2c()) {
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .minConnections(1)
+                    .maxConnections(h2MaxConnections)
+                    .maxConcurrentStreams(h2MaxConcurrentStreams)
+                    .build());
+        }
+
+        switch (lease) {
+            case "fifo" -> builder.fifo();
+            case "lifo" -> builder.lifo();
+            default -> throw new IllegalArgumentException(
+                "Unknown app.downstream.pool.lease: " + lease + " (expected fifo or lifo)");
+        }
+        return builder.build();
+    }
 
     @Bean
-    public WebClient webClient() {
-        HttpClient httpClient = HttpClient.create()
+    public WebClient webClient(ConnectionProvider downstreamConnectionProvider, ConnectionPoolStats poolStats,
+                               NettyTransport nettyTransport) {
+        HttpClient httpClient = HttpClient.create(downstreamConnectionProvider)
+                .runOn(nettyTransport.clientLoops())
+                .protocol(isH2c() ? HttpProtocol.H2C : HttpProtocol.HTTP11)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, timeoutMs)
                 .responseTimeout(Duration.ofMillis(timeoutMs))
                 .doOnConnected(conn -> {
                     conn.addHandlerLast(new ReadTimeoutHandler(timeoutMs, TimeUnit.MILLISECONDS));
                     conn.addHandlerLast(new WriteTimeoutHandler(timeoutMs, TimeUnit.MILLISECONDS));
-                });
+                })
+                .doOnRequest((req, conn) -> req.currentContextView()
+                        .<Long>getOrEmpty(ConnectionPoolStats.ACQUIRE_START)
+                        .ifPresent(poolStats::recordAcquired));
 
         return WebClient.builder()
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter((request, next) -> next.exchange(request).contextWrite(ConnectionPoolStats::markAcquireStart))
                 .exchangeStrategies(
                         ExchangeStrategies.builder()
                                 .codecs(c -> c.defaultCodecs().maxInMemorySize(8 * 1024))
@@ -42,4 +92,13 @@ public class WebClientConfig {
                 )
                 .build();
     }
+
+    private boolean isH2c() {
+        return switch (protocol) {
+            case "http1" -> false;
+            case "h2c" -> true;
+            default -> throw new IllegalArgumentException(
+                "Unknown app.downstream.protocol: " + protocol + " (expected http1 or h2c)");
+        };
+    }
 }
@@ -1,60 +1,208 @@
 package com.fernandoglizt.reactive.javareactor.controller;
 
+import com.fernandoglizt.reactive.javareactor.config.ConnectionPoolStats;
+import com.fernandoglizt.reactive.javareactor.config.NettyTransport;
+import com.fernandoglizt.reactive.javareactor.model.BatchResult;
 import com.fernandoglizt.reactive.javareactor.model.ProcessRequest;
 import com.fernandoglizt.reactive.javareactor.model.ProcessResponse;
+import com.fernandoglizt.reactive.javareactor.service.AdaptiveLimit;
+import com.fernandoglizt.reactive.javareactor.service.CallCoalescer;
+import com.fernandoglizt.reactive.javareactor.service.CancellationStats;
+import com.fernandoglizt.reactive.javareactor.service.CircuitBreakers;
+import com.fernandoglizt.reactive.javareactor.service.FairQueuing;
+import com.fernandoglizt.reactive.javareactor.service.HedgePolicy;
+import com.fernandoglizt.reactive.javareactor.service.JobRegistry;
 import com.fernandoglizt.reactive.javareactor.service.ReactiveProcessor;
+import com.fernandoglizt.reactive.javareactor.service.RetryPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.net.URI;
 import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/")
 public class ProcessController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProcessController.class);
+    private static final String TIMED_OUT = "processing timed out, in-flight calls cancelled";
 
     private final ReactiveProcessor reactiveProcessor;
+    private final CancellationStats cancellationStats;
+    private final RetryPolicy retryPolicy;
+    private final ConnectionPoolStats connectionPoolStats;
+    private final AdaptiveLimit adaptiveLimit;
+    private final CircuitBreakers circuitBreakers;
+    private final HedgePolicy hedgePolicy;
+    private final CallCoalescer coalescer;
+    private final JobRegistry jobs;
+    private final FairQueuing fairQueuing;
+    private final NettyTransport nettyTransport;
     private final int maxCount;
 
+    @Value("${app.downstream.protocol:http1}")
+    private String downstreamProtocol;
+
+    @Value("${app.downstream.call-mode:item}")
+    private String callMode;
+
     public ProcessController(ReactiveProcessor reactiveProcessor,
+                           CancellationStats cancellationStats,
+                           RetryPolicy retryPolicy,
+                           ConnectionPoolStats connectionPoolStats,
+                           AdaptiveLimit adaptiveLimit,
+                           CircuitBreakers circuitBreakers,
+                           HedgePolicy hedgePolicy,
+                           CallCoalescer coalescer,
+                           JobRegistry jobs,
+                           FairQueuing fairQueuing,
+                           NettyTransport nettyTransport,
                            @Value("${app.max-count:200000}") int maxCount) {
         this.reactiveProcessor = reactiveProcessor;
+        this.cancellationStats = cancellationStats;
+        this.retryPolicy = retryPolicy;
+        this.connectionPoolStats = connectionPoolStats;
+        this.adaptiveLimit = adaptiveLimit;
+        this.circuitBreakers = circuitBreakers;
+        this.hedgePolicy = hedgePolicy;
+        this.coalescer = coalescer;
+        this.jobs = jobs;
+        this.fairQueuing = fairQueuing;
+        this.nettyTransport = nettyTransport;
         this.maxCount = maxCount;
     }
 
     @PostMapping("/process")
-    public Mono<ResponseEntity<?>> process(@RequestBody ProcessRequest request) {
+    public Mono<ResponseEntity<?>> process(@RequestBody ProcessRequest request,
+            @RequestHeader(name = FairQueuing.TENANT_HEADER, required = false) String tenant) {
         logger.info("Processing request: count={}, batch={}, ioDelayMs={}, downstreamUrl={}", 
                 request.getCount(), request.getBatch(), request.getIoDelayMs(), request.getDownstreamUrl());
 
+        request.setTenant(tenant);
+        String invalid = validate(request);
+        if (invalid != null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", invalid)));
+        }
+
+        return reactiveProcessor.processEvents(request)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(TimeoutException.class, e -> Mono.just(ResponseEntity
+                        .status(HttpStatus.GATEWAY_TIMEOUT)
+                        .body(Map.of("error", TIMED_OUT))));
+    }
+
+    // One JSON object per line: a BatchResult per finished batch, then the ProcessResponse summary
+    @PostMapping(value = "/process/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<Object>>> processNdjson(@RequestBody ProcessRequest request,
+            @RequestHeader(name = FairQueuing.TENANT_HEADER, required = false) String tenant) {
+        request.setTenant(tenant);
+        String invalid = validate(request);
+        if (invalid != null) {
+            return Mono.just(ResponseEntity.badRequest().body(Flux.just(Map.of("error", invalid))));
+        }
+
+        return Mono.just(ResponseEntity.ok(reactiveProcessor.processStream(request)
+                .onErrorResume(TimeoutException.class, e -> Flux.just(Map.of("error", TIMED_OUT)))));
+    }
+
+    // Same stream as Server-Sent Events named batch / summary / error
+    @PostMapping(value = "/process/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<Object>>>> processSse(@RequestBody ProcessRequest request,
+            @RequestHeader(name = FairQueuing.TENANT_HEADER, required = false) String tenant) {
+        request.setTenant(tenant);
+        String invalid = validate(request);
+        if (invalid != null) {
+            return Mono.just(ResponseEntity.badRequest().body(Flux.just(sse("error", Map.of("error", invalid)))));
+        }
+
+        return Mono.just(ResponseEntity.ok(reactiveProcessor.processStream(request)
+                .map(payload -> sse(payload instanceof BatchResult ? "batch" : "summary", payload))
+                .onErrorResume(TimeoutException.class, e -> Flux.just(sse("error", Map.of("error", TIMED_OUT))))));
+    }
+
+    // Same run as /process without holding the connection; poll GET /jobs/{id} for progress and the result
+    @PostMapping("/jobs")
+    public Mono<ResponseEntity<?>> submitJob(@RequestBody ProcessRequest request,
+            @RequestHeader(name = FairQueuing.TENANT_HEADER, required = false) String tenant) {
+        request.setTenant(tenant);
+        String invalid = validate(request);
+        if (invalid != null) {
+            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", invalid)));
+        }
+
+        try {
+            JobRegistry.Job job = jobs.submit(request);
+            return Mono.just(ResponseEntity.accepted()
+                    .location(URI.create("/jobs/" + job.id()))
+                    .body(job.status()));
+        } catch (RejectedExecutionException e) {
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage())));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    public Mono<ResponseEntity<?>> getJob(@PathVariable String id) {
+        JobRegistry.Job job = jobs.get(id);
+        return Mono.just(job == null ? jobNotFound(id) : ResponseEntity.ok(job.status()));
+    }
+
+    // Running: cancelled (202), the entry stays until it expires. Finished: removed (200)
+    @DeleteMapping("/jobs/{id}")
+    public Mono<ResponseEntity<?>> cancelJob(@PathVariable String id) {
+        JobRegistry.Job job = jobs.get(id);
+        if (job == null) {
+            return Mono.just(jobNotFound(id));
+        }
+        boolean wasRunning = job.state() == JobRegistry.State.RUNNING;
+        jobs.cancel(id);
+        return Mono.just(wasRunning
+                ? ResponseEntity.accepted().body(job.status())
+                : ResponseEntity.ok(job.status()));
+    }
+
+    private static ResponseEntity<?> jobNotFound(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "job not found", "id", id));
+    }
+
+    private static ServerSentEvent<Object> sse(String event, Object payload) {
+        return ServerSentEvent.builder(payload).event(event).build();
+    }
+
+    // Returns the error message, or null when the request is valid (a negative delay is clamped to 0)
+    private String validate(ProcessRequest request) {
         if (request.getCount() <= 0) {
             logger.warn("Invalid count: {}", request.getCount());
-            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "count must be > 0")));
+            return "count must be > 0";
         }
-        
+
         if (request.getBatch() <= 0) {
             logger.warn("Invalid batch: {}", request.getBatch());
-            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "batch must be > 0")));
+            return "batch must be > 0";
         }
-        
+
         if (request.getCount() > maxCount) {
             logger.warn("Count exceeds maximum: {} > {}", request.getCount(), maxCount);
-            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "count exceeds maximum allowed: " + maxCount)));
+            return "count exceeds maximum allowed: " + maxCount;
         }
 
         if (request.getIoDelayMs() < 0) {
             request.setIoDelayMs(0);
         }
-
-        return reactiveProcessor.processEvents(request)
-                .map(ResponseEntity::ok);
+        return null;
     }
 
     @GetMapping("/healthz")
@@ -67,13 +215,25 @@ public class ProcessController {
 
     @GetMapping("/info")
     public Mono<ResponseEntity<Map<String, Object>>> info() {
-        return Mono.just(ResponseEntity.ok(Map.of(
-                "name", "java-reactor",
-                "version", "0.0.1-SNAPSHOT",
-                "description", "Reactive Spring Boot application with WebFlux and Project Reactor",
-                "buildTime", Instant.now().toString(),
-                "javaVersion", System.getProperty("java.version"),
-                "maxCount", maxCount
+        return Mono.just(ResponseEntity.ok(Map.ofEntries(
+                Map.entry("name", "java-reactor"),
+                Map.entry("version", "0.0.1-SNAPSHOT"),
+                Map.entry("description", "Reactive Spring Boot application with WebFlux and Project Reactor"),
+                Map.entry("buildTime", Instant.now().toString()),
+                Map.entry("javaVersion", System.getProperty("java.version")),
+                Map.entry("maxCount", maxCount),
+                Map.entry("cancellation", cancellationStats.snapshot()),
+                Map.entry("retry", retryPolicy.snapshot()),
+                Map.entry("connectionPool", connectionPoolStats.snapshot()),
+                Map.entry("downstreamProtocol", downstreamProtocol),
+                Map.entry("callMode", callMode),
+                Map.entry("adaptiveLimit", adaptiveLimit.snapshot()),
+                Map.entry("circuitBreaker", circuitBreakers.snapshot()),
+                Map.entry("hedge", hedgePolicy.snapshot()),
+                Map.entry("coalescing", coalescer.snapshot()),
+                Map.entry("jobs", jobs.snapshot()),
+                Map.entry("fairQueuing", fairQueuing.snapshot()),
+                Map.entry("eventLoops", nettyTransport.snapshot())
         )));
     }
 }
@@ -0,0 +1,11 @@
+package com.fernandoglizt.reactive.javareactor.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * 2xx body of slow-io POST /slow/batch. {@code failed} lists the ids of the items that failed;
+ * every other item of the batch succeeded.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record BatchReply(int count, int[] failed) {
+}
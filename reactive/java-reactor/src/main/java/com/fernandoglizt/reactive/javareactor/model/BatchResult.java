@@ -0,0 +1,17 @@
+package com.fernandoglizt.reactive.javareactor.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Progress line emitted by /process/stream when a batch finishes. processed_events and
+ * events_per_sec are cumulative for the run so far.
+ */
+public record BatchResult(
+    int batch,
+    int ok,
+    int fail,
+    @JsonProperty("duration_ms") long durationMs,
+    @JsonProperty("processed_events") int processedEvents,
+    @JsonProperty("events_per_sec") double eventsPerSec
+) {
+}
@@ -0,0 +1,21 @@
+package com.fernandoglizt.reactive.javareactor.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of the /jobs endpoints. The counters are live while the job runs; result holds the
+ * final ProcessResponse of a job that completed, error says why one failed or was cut short.
+ */
+public record JobStatus(
+    String id,
+    String state,
+    @JsonProperty("submitted_at") String submittedAt,
+    @JsonProperty("finished_at") String finishedAt,
+    int count,
+    @JsonProperty("processed_events") int processedEvents,
+    @JsonProperty("external_calls_ok") int externalCallsOk,
+    @JsonProperty("external_calls_fail") int externalCallsFail,
+    ProcessResponse result,
+    String error
+) {
+}
@@ -1,5 +1,6 @@
 package com.fernandoglizt.reactive.javareactor.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class ProcessRequest {
@@ -15,6 +16,14 @@ public class ProcessRequest {
     
     @JsonProperty("downstream_url")
     private String downstreamUrl = "http://slow-io:8080/slow";
+
+    // Opt-in: share in-flight calls and cached successes with identical calls (idempotent downstreams only)
+    @JsonProperty("coalesce")
+    private boolean coalesce;
+
+    // X-Tenant header, set by the controller; selects the fair-queuing flow in tenant mode
+    @JsonIgnore
+    private String tenant;
     
     // Default constructor
     public ProcessRequest() {}
@@ -59,4 +68,20 @@ public class ProcessRequest {
     public void setDownstreamUrl(String downstreamUrl) {
         this.downstreamUrl = downstreamUrl;
     }
+
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    public void setCoalesce(boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public void setTenant(String tenant) {
+        this.tenant = tenant;
+    }
 }
@@ -38,6 +38,21 @@ public class ProcessResponse {
     @JsonProperty("events_per_sec")
     private double eventsPerSec;
     
+    @JsonProperty("calls_fast_failed")
+    private int callsFastFailed;
+
+    @JsonProperty("hedges_sent")
+    private int hedgesSent;
+
+    @JsonProperty("hedges_won")
+    private int hedgesWon;
+
+    @JsonProperty("latency_first_attempt_ms")
+    private LatencySummary latencyFirstAttemptMs;
+
+    @JsonProperty("latency_with_retries_ms")
+    private LatencySummary latencyWithRetriesMs;
+
     @JsonProperty("ts")
     private String timestamp;
     
@@ -182,4 +197,44 @@ public class ProcessResponse {
     public void setNotes(String notes) {
         this.notes = notes;
     }
+
+    public int getCallsFastFailed() {
+        return callsFastFailed;
+    }
+
+    public void setCallsFastFailed(int callsFastFailed) {
+        this.callsFastFailed = callsFastFailed;
+    }
+
+    public int getHedgesSent() {
+        return hedgesSent;
+    }
+
+    public void setHedgesSent(int hedgesSent) {
+        this.hedgesSent = hedgesSent;
+    }
+
+    public int getHedgesWon() {
+        return hedgesWon;
+    }
+
+    public void setHedgesWon(int hedgesWon) {
+        this.hedgesWon = hedgesWon;
+    }
+
+    public LatencySummary getLatencyFirstAttemptMs() {
+        return latencyFirstAttemptMs;
+    }
+    
+    public void setLatencyFirstAttemptMs(LatencySummary latencyFirstAttemptMs) {
+        this.latencyFirstAttemptMs = latencyFirstAttemptMs;
+    }
+    
+    public LatencySummary getLatencyWithRetriesMs() {
+        return latencyWithRetriesMs;
+    }
+    
+    public void setLatencyWithRetriesMs(LatencySummary latencyWithRetriesMs) {
+        this.latencyWithRetriesMs = latencyWithRetriesMs;
+    }
 }
@@ -0,0 +1,138 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+/**
+ * Process-wide limit on inflight downstream calls, re-estimated from every call's RTT and outcome.
+ * LIMIT_ALGORITHM selects how:
+ * <ul>
+ *   <li>fixed: never changes (LIMIT_INITIAL)</li>
+ *   <li>aimd: +1 while the limit is in use, x0.9 on an error or an RTT above LIMIT_AIMD_TIMEOUT_MS</li>
+ *   <li>gradient: Vegas-style, scales the limit by no-load RTT / current RTT and adds sqrt(limit)
+ *       of queueing headroom, so it shrinks as soon as the downstream starts queueing</li>
+ * </ul>
+ */
+@Component
+public class AdaptiveLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+
+    private final String algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long aimdTimeoutNanos;
+    private final CopyOnWriteArrayList<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+
+    private double estimate;
+    private volatile int limit;
+    private double longRttNanos;
+
+    public AdaptiveLimit(
+            @Value("${app.limit.algorithm:fixed}") String algorithm,
+            @Value("${app.limit.initial:${app.downstream.pool.max-connections:256}}") int initialLimit,
+            @Value("${app.limit.min:8}") int minLimit,
+            @Value("${app.limit.max:1024}") int maxLimit,
+            @Value("${app.limit.aimd-timeout-ms:1000}") long aimdTimeoutMs
+    ) {
+        if (!algorithm.equals("fixed") && !algorithm.equals("aimd") && !algorithm.equals("gradient")) {
+            throw new IllegalArgumentException(
+                "Unknown app.limit.algorithm: " + algorithm + " (expected fixed, aimd or gradient)");
+        }
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limit settings must satisfy 0 < min <= initial <= max");
+        }
+        this.algorithm = algorithm;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.aimdTimeoutNanos = aimdTimeoutMs * 1_000_000;
+        this.estimate = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public String algorithm() {
+        return algorithm;
+    }
+
+    // Notified with every new limit, on the thread that reported the sample
+    public void onChange(IntConsumer listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Reports one finished attempt. {@code inflight} is the number of calls in flight when it
+     * finished; {@code dropped} marks an error or timeout.
+     */
+    public void onSample(long rttNanos, int inflight, boolean dropped) {
+        if (algorithm.equals("fixed")) {
+            return;
+        }
+        synchronized (this) {
+            estimate = algorithm.equals("aimd")
+                ? aimd(rttNanos, inflight, dropped)
+                : gradient(rttNanos, inflight, dropped);
+            int updated = (int) estimate;
+            if (updated == limit) {
+                return;
+            }
+            limit = updated;
+            // Under the lock so listeners never see limits out of order; they must not block
+            for (IntConsumer listener : listeners) {
+                listener.accept(updated);
+            }
+        }
+    }
+
+    private double aimd(long rttNanos, int inflight, boolean dropped) {
+        if (dropped || rttNanos > aimdTimeoutNanos) {
+            return Math.max(minLimit, Math.floor(estimate * BACKOFF_RATIO));
+        }
+        // Only grow while the current limit is actually being used
+        if (inflight * 2 >= estimate) {
+            return Math.min(maxLimit, estimate + 1);
+        }
+        return estimate;
+    }
+
+    private double gradient(long rttNanos, int inflight, boolean dropped) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        }
+        longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+        // After a sustained drop in load the long-term RTT lags behind; pull it down faster
+        if (longRttNanos > rttNanos * 2.0) {
+            longRttNanos *= 0.95;
+        }
+        if (!dropped && inflight * 2 < estimate) {
+            return estimate;
+        }
+
+        double gradient = dropped
+            ? 0.5
+            : Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / Math.max(1, rttNanos)));
+        double target = estimate * gradient + Math.sqrt(estimate);
+        double smoothed = estimate * (1 - SMOOTHING) + target * SMOOTHING;
+        return Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        return Map.of(
+            "algorithm", algorithm,
+            "limit", limit,
+            "min", minLimit,
+            "max", maxLimit,
+            "rtt_no_load_ms", longRttNanos / 1_000_000.0
+        );
+    }
+}
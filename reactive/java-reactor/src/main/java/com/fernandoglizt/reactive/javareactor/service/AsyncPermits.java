@@ -0,0 +1,197 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking counting semaphore for the event loop: {@link #acquire} completes immediately
+ * while permits are free and otherwise parks a callback (not a thread) in its flow's queue.
+ * Freed permits go to the queued callbacks by start-time fair queuing: each flow gets a share of
+ * the permits proportional to its weight, FIFO within the flow, so a flow with a deep backlog
+ * cannot starve a short one. With a single flow this is plain FIFO.
+ * The limit can be resized at any time; shrinking takes effect as permits are released.
+ */
+final class AsyncPermits {
+
+    private static final Object SHARED = new Object();
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    // Flows with queued callbacks, or idle ones still ahead of virtualTime; guarded by itself
+    private final Map<Object, Flow> flows = new HashMap<>();
+    private double virtualTime;
+    private volatile int limit;
+
+    AsyncPermits(int limit) {
+        this.limit = limit;
+    }
+
+    int inflight() {
+        return inflight.get();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    void resize(int limit) {
+        this.limit = limit;
+        drain();
+    }
+
+    Mono<Permit> acquire() {
+        return acquire(SHARED, 1.0);
+    }
+
+    /**
+     * Emits a permit once one is free and it is {@code flow}'s turn. Cancelling while queued gives
+     * up the place in line, and a permit emitted after the cancel is released here; a delivered
+     * permit must be released exactly once.
+     */
+    Mono<Permit> acquire(Object flow, double weight) {
+        return Mono.create(sink -> {
+            // Nobody waiting: no turn to respect
+            if (queued.get() == 0 && tryAcquire()) {
+                Permit permit = new Permit(0);
+                // Runs only if the cancel beats the emission, which the sink then drops
+                sink.onCancel(permit::release);
+                sink.success(permit);
+                return;
+            }
+            Waiter waiter = new Waiter(sink, System.nanoTime());
+            synchronized (flows) {
+                Flow queue = flows.computeIfAbsent(flow, key -> new Flow());
+                waiter.flow = queue;
+                waiter.startTag = Math.max(virtualTime, queue.lastFinishTag);
+                queue.lastFinishTag = waiter.startTag + 1.0 / weight;
+                queue.waiters.add(waiter);
+                queued.incrementAndGet();
+            }
+            sink.onCancel(() -> {
+                if (waiter.claimed.compareAndSet(false, true)) {
+                    synchronized (flows) {
+                        waiter.flow.waiters.remove(waiter);
+                    }
+                    queued.decrementAndGet();
+                    return;
+                }
+                // drain claimed this waiter; the permit it emits (or is about to) will be dropped
+                waiter.cancelled = true;
+                Permit permit = waiter.permit;
+                if (permit != null) {
+                    permit.release();
+                }
+            });
+            // A permit may have been released between the check above and the enqueue
+            drain();
+        });
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void drain() {
+        while (queued.get() > 0 && tryAcquire()) {
+            Waiter next;
+            synchronized (flows) {
+                next = pollNext();
+            }
+            if (next == null) {
+                inflight.decrementAndGet();
+                return;
+            }
+            Permit permit = new Permit(System.nanoTime() - next.queuedAt);
+            next.permit = permit;
+            // Pairs with onCancel: whichever side sees the other releases, release() being idempotent
+            if (next.cancelled) {
+                permit.release();
+            } else {
+                next.sink.success(permit);
+            }
+        }
+    }
+
+    // The queued callback with the smallest start tag, claimed; null when none is left
+    private Waiter pollNext() {
+        while (true) {
+            Flow best = null;
+            for (Iterator<Flow> it = flows.values().iterator(); it.hasNext(); ) {
+                Flow flow = it.next();
+                Waiter head = flow.waiters.peek();
+                if (head == null) {
+                    if (flow.lastFinishTag <= virtualTime) {
+                        it.remove();
+                    }
+                } else if (best == null || head.startTag < best.waiters.peek().startTag) {
+                    best = flow;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+            Waiter waiter = best.waiters.poll();
+            virtualTime = Math.max(virtualTime, waiter.startTag);
+            if (waiter.claimed.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+                return waiter;
+            }
+        }
+    }
+
+    private static final class Flow {
+        final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        double lastFinishTag;
+    }
+
+    private static final class Waiter {
+        final MonoSink<Permit> sink;
+        final long queuedAt;
+        final AtomicBoolean claimed = new AtomicBoolean();
+        volatile boolean cancelled;
+        volatile Permit permit;
+        Flow flow;
+        double startTag;
+
+        Waiter(MonoSink<Permit> sink, long queuedAt) {
+            this.sink = sink;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    final class Permit {
+
+        private final long queuedNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long queuedNanos) {
+            this.queuedNanos = queuedNanos;
+        }
+
+        // Time spent waiting for this permit; 0 when it was free
+        long queuedNanos() {
+            return queuedNanos;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                inflight.decrementAndGet();
+                drain();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+/**
+ * Primitive descriptor of one batch over the source range {@code 1..count}:
+ * positions {@code [start, start + length)}. Replaces {@code buffer(batch)},
+ * so a run never materializes a list of items.
+ */
+public record BatchRange(int index, int start, int length) {
+
+    public int end() {
+        return start + length;
+    }
+
+    public static int countFor(int count, int batchSize) {
+        return (count + batchSize - 1) / batchSize;
+    }
+
+    public static BatchRange at(int index, int count, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch must be > 0");
+        }
+        int start = 1 + index * batchSize;
+        return new BatchRange(index, start, Math.min(batchSize, count - start + 1));
+    }
+}
@@ -0,0 +1,138 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in layer (ProcessRequest.coalesce) for idempotent downstreams: concurrent calls to the
+ * same target share one in-flight call (single-flight), and a success is remembered for
+ * COALESCE_TTL_MS in an LRU of at most COALESCE_MAX_ENTRIES targets. Failures are shared with
+ * the calls waiting on them but never cached. With TTL 0 only the single-flight part applies.
+ */
+@Component
+public class CallCoalescer {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    // target -> expiry (System.nanoTime) of its last success
+    private final LinkedHashMap<URI, Long> cache;
+    private final Map<URI, Mono<Boolean>> inflight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CallCoalescer(
+            @Value("${app.coalesce.ttl-ms:1000}") long ttlMs,
+            @Value("${app.coalesce.max-entries:1024}") int maxEntries
+    ) {
+        if (ttlMs < 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("coalesce ttl-ms must be >= 0 and max-entries > 0");
+        }
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntries = maxEntries;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, Long> eldest) {
+                return size() > CallCoalescer.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Outcome of a call to {@code target}: a cached success, the call already in flight for it,
+     * or {@code call} subscribed once and shared. A caller that cancels only stops its own wait:
+     * the shared call keeps running for the others, even when the caller that started it goes
+     * away, and is cancelled only once no caller is left waiting on it.
+     */
+    public Mono<Boolean> get(URI target, Mono<Boolean> call) {
+        return Mono.defer(() -> {
+            if (cached(target)) {
+                hits.increment();
+                return Mono.just(Boolean.TRUE);
+            }
+            Mono<Boolean> existing = inflight.get(target);
+            if (existing == null) {
+                AtomicReference<Mono<Boolean>> self = new AtomicReference<>();
+                Mono<Boolean> flight = call
+                        .doOnNext(ok -> {
+                            if (ok) {
+                                store(target);
+                            }
+                        })
+                        .doFinally(signal -> inflight.remove(target, self.get()))
+                        .share();
+                self.set(flight);
+                existing = inflight.putIfAbsent(target, flight);
+                if (existing == null) {
+                    misses.increment();
+                    return flight;
+                }
+            }
+            coalesced.increment();
+            return existing;
+        });
+    }
+
+    private boolean cached(URI target) {
+        if (ttlNanos == 0) {
+            return false;
+        }
+        synchronized (cache) {
+            Long expiresAt = cache.get(target);
+            if (expiresAt == null) {
+                return false;
+            }
+            if (expiresAt - System.nanoTime() > 0) {
+                return true;
+            }
+            cache.remove(target);
+            return false;
+        }
+    }
+
+    private void store(URI target) {
+        if (ttlNanos == 0) {
+            return;
+        }
+        synchronized (cache) {
+            cache.put(target, System.nanoTime() + ttlNanos);
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return Map.of(
+            "ttl_ms", TimeUnit.NANOSECONDS.toMillis(ttlNanos),
+            "cached_targets", size,
+            "inflight", inflight.size(),
+            "hits", hits(),
+            "misses", misses(),
+            "coalesced", coalesced()
+        );
+    }
+}
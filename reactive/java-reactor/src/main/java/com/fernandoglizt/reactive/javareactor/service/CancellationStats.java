@@ -0,0 +1,31 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters of cancelled runs and the downstream work they did not perform.
+ */
+@Component
+public class CancellationStats {
+
+    private final LongAdder runsCancelled = new LongAdder();
+    private final LongAdder callsAvoided = new LongAdder();
+    private final LongAdder callsInterrupted = new LongAdder();
+
+    public void record(int avoided, int interrupted) {
+        runsCancelled.increment();
+        callsAvoided.add(avoided);
+        callsInterrupted.add(interrupted);
+    }
+
+    public Map<String, Object> snapshot() {
+        return Map.of(
+            "runs_cancelled", runsCancelled.sum(),
+            "calls_avoided", callsAvoided.sum(),
+            "calls_interrupted", callsInterrupted.sum()
+        );
+    }
+}
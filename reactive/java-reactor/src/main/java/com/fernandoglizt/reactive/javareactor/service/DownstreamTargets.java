@@ -0,0 +1,72 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves downstream_url + io_delay_ms into a pre-parsed {@link URI} once per run; every call
+ * and retry of the run reuses it. A small LRU keeps targets across runs, since benchmarks
+ * replay the same few URLs.
+ */
+@Component
+public class DownstreamTargets {
+
+    private record Key(String baseUrl, int delayMs) {
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, URI> cache;
+
+    public DownstreamTargets(@Value("${app.downstream.target-cache-size:64}") int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("target-cache-size must be > 0");
+        }
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, URI> eldest) {
+                return size() > DownstreamTargets.this.capacity;
+            }
+        };
+    }
+
+    public URI resolve(String baseUrl, int delayMs) {
+        Key key = new Key(baseUrl, delayMs);
+        synchronized (cache) {
+            URI uri = cache.get(key);
+            if (uri == null) {
+                uri = URI.create(appendDelayParam(baseUrl, delayMs));
+                cache.put(key, uri);
+            }
+            return uri;
+        }
+    }
+
+    // CALL_MODE=batch target: <path>/batch, same query
+    public URI resolveBatch(String baseUrl, int delayMs) {
+        return resolve(batchUrl(baseUrl), delayMs);
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    static String batchUrl(String url) {
+        int query = url.indexOf('?');
+        return query < 0
+            ? url + "/batch"
+            : url.substring(0, query) + "/batch" + url.substring(query);
+    }
+
+    static String appendDelayParam(String url, int delay) {
+        return url.contains("?")
+            ? url + "&delay_ms=" + delay
+            : url + "?delay_ms=" + delay;
+    }
+}
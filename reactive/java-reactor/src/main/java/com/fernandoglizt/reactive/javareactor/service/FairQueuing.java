@@ -0,0 +1,87 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * How downstream calls of concurrent runs share the process-wide inflight limit once it is
+ * exhausted (FAIR_QUEUING):
+ * <ul>
+ *   <li>request: every run is its own flow with weight 1, so a small run waits behind at most
+ *       one permit per other active run instead of behind a large run's whole backlog</li>
+ *   <li>tenant: runs are grouped by the X-Tenant header (missing: "default") and each tenant gets
+ *       the weight listed in FAIR_QUEUING_WEIGHTS ("gold=4,silver=2"; unlisted tenants: 1)</li>
+ *   <li>fifo: one shared queue, the order calls asked for a permit</li>
+ * </ul>
+ */
+@Component
+public class FairQueuing {
+
+    public static final String TENANT_HEADER = "X-Tenant";
+    private static final String DEFAULT_TENANT = "default";
+
+    // key identifies the queue; label tags the queue-time metric and stays low-cardinality
+    public record Flow(Object key, double weight, String label) {
+    }
+
+    private static final Flow FIFO = new Flow("fifo", 1.0, "fifo");
+
+    private final String mode;
+    private final Map<String, Double> weights;
+
+    public FairQueuing(
+            @Value("${app.fairness.mode:request}") String mode,
+            @Value("${app.fairness.weights:}") String weights
+    ) {
+        if (!mode.equals("request") && !mode.equals("tenant") && !mode.equals("fifo")) {
+            throw new IllegalArgumentException(
+                "Unknown app.fairness.mode: " + mode + " (expected request, tenant or fifo)");
+        }
+        this.mode = mode;
+        this.weights = parseWeights(weights);
+    }
+
+    static Map<String, Double> parseWeights(String spec) {
+        Map<String, Double> parsed = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=", 2);
+            double weight = parts.length == 2 ? Double.parseDouble(parts[1].trim()) : Double.NaN;
+            if (!(weight > 0)) {
+                throw new IllegalArgumentException("fairness weights must look like tenant=weight with weight > 0: " + entry);
+            }
+            parsed.put(parts[0].trim(), weight);
+        }
+        return Map.copyOf(parsed);
+    }
+
+    public String mode() {
+        return mode;
+    }
+
+    // Flow of one run; tenant is the X-Tenant header, possibly null
+    public Flow flowFor(String tenant) {
+        return switch (mode) {
+            case "fifo" -> FIFO;
+            case "request" -> new Flow(new Object(), 1.0, "request");
+            default -> {
+                String name = tenant == null || tenant.isBlank() ? DEFAULT_TENANT : tenant;
+                Double weight = weights.get(name);
+                yield new Flow(name, weight != null ? weight : 1.0,
+                        weight != null || name.equals(DEFAULT_TENANT) ? name : "other");
+            }
+        };
+    }
+
+    public Map<String, Object> snapshot() {
+        return Map.of(
+            "mode", mode,
+            "weights", weights
+        );
+    }
+}
@@ -0,0 +1,122 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedging rules shared by every run (HEDGE_ENABLED, off by default): when an attempt has not
+ * answered after the hedge delay, a second copy is sent and the first answer wins. The delay is
+ * HEDGE_DELAY_MS, or with 0 the live p95 of successful attempts, refreshed every
+ * {@value #WINDOW} samples; no hedge is sent until the first window is full. Hedges draw from a
+ * token bucket that earns HEDGE_BUDGET_PERCENT / 100 tokens per call, so they add at most that
+ * share of extra downstream load.
+ */
+@Component
+public class HedgePolicy {
+
+    static final int WINDOW = 512;
+    private static final long MILLI = 1000;
+
+    private final boolean enabled;
+    private final long fixedDelayNanos;
+    private final long depositMilliTokens;
+    private final long maxMilliTokens;
+    private final AtomicLong milliTokens;
+
+    private final AtomicReference<LatencyRecorder> window = new AtomicReference<>(new LatencyRecorder());
+    private final AtomicLong windowSamples = new AtomicLong();
+    private volatile long p95Nanos = -1;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder won = new LongAdder();
+
+    public HedgePolicy(
+            @Value("${app.hedge.enabled:false}") boolean enabled,
+            @Value("${app.hedge.delay-ms:0}") long delayMs,
+            @Value("${app.hedge.budget-percent:5}") double budgetPercent,
+            @Value("${app.hedge.budget-max-tokens:100}") int budgetMaxTokens
+    ) {
+        if (delayMs < 0 || budgetPercent < 0 || budgetPercent > 100 || budgetMaxTokens < 0) {
+            throw new IllegalArgumentException("invalid hedge settings");
+        }
+        this.enabled = enabled;
+        this.fixedDelayNanos = delayMs > 0 ? TimeUnit.MILLISECONDS.toNanos(delayMs) : -1;
+        this.depositMilliTokens = Math.round(budgetPercent * MILLI / 100);
+        this.maxMilliTokens = budgetMaxTokens * MILLI;
+        this.milliTokens = new AtomicLong(maxMilliTokens);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    // Negative while no hedge should be sent (disabled, or live p95 not known yet)
+    public long delayNanos() {
+        if (!enabled) {
+            return -1;
+        }
+        return fixedDelayNanos > 0 ? fixedDelayNanos : p95Nanos;
+    }
+
+    // Called once per call
+    public void onCall() {
+        if (enabled && milliTokens.get() < maxMilliTokens) {
+            milliTokens.accumulateAndGet(depositMilliTokens, (current, deposit) -> Math.min(maxMilliTokens, current + deposit));
+        }
+    }
+
+    // Latency of a successful attempt, feeding the live p95 delay
+    public void recordLatency(long nanos) {
+        if (!enabled || fixedDelayNanos > 0) {
+            return;
+        }
+        LatencyRecorder current = window.get();
+        current.recordNanos(nanos);
+        if (windowSamples.incrementAndGet() % WINDOW == 0 && window.compareAndSet(current, new LatencyRecorder())) {
+            p95Nanos = (long) (current.summary().p95() * 1_000_000);
+        }
+    }
+
+    /**
+     * Whether a hedge may be sent now. Consumes a budget token when allowed.
+     */
+    public boolean tryHedge() {
+        long current;
+        do {
+            current = milliTokens.get();
+            if (current < MILLI) {
+                return false;
+            }
+        } while (!milliTokens.compareAndSet(current, current - MILLI));
+        sent.increment();
+        return true;
+    }
+
+    public void onHedgeWon() {
+        won.increment();
+    }
+
+    public long hedgesSent() {
+        return sent.sum();
+    }
+
+    public long hedgesWon() {
+        return won.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        return Map.of(
+            "enabled", enabled,
+            "delay_ms", delayNanos() < 0 ? -1 : delayNanos() / 1_000_000.0,
+            "budget_tokens", milliTokens.get() / (double) MILLI,
+            "hedges_sent", hedgesSent(),
+            "hedges_won", hedgesWon()
+        );
+    }
+}
@@ -0,0 +1,235 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import com.fernandoglizt.reactive.javareactor.model.BatchResult;
+import com.fernandoglizt.reactive.javareactor.model.JobStatus;
+import com.fernandoglizt.reactive.javareactor.model.ProcessRequest;
+import com.fernandoglizt.reactive.javareactor.model.ProcessResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory store behind /jobs: runs submitted without holding a connection. At most
+ * JOBS_MAX_RUNNING jobs run at once and at most JOBS_CAPACITY are kept; finished jobs expire
+ * JOBS_TTL_MS after finishing, and the oldest finished job makes room when the store is full.
+ * Submissions over either bound are rejected rather than queued.
+ */
+@Component
+public class JobRegistry {
+
+    public enum State {
+        RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // Progress comes from the run's BatchResults; cancelling disposes the subscription, which cancels in-flight calls
+    public static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final Instant submittedAt = Instant.now();
+        private final int count;
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder fail = new LongAdder();
+        private final AtomicInteger settled = new AtomicInteger();
+        private Disposable subscription;
+        private volatile State state = State.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile long finishedNanos;
+        private volatile ProcessResponse result;
+        private volatile String error;
+
+        Job(int count) {
+            this.count = count;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public State state() {
+            return state;
+        }
+
+        public JobStatus status() {
+            ProcessResponse response = result;
+            int callsOk = response != null ? response.getExternalCallsOk() : ok.intValue();
+            int callsFail = response != null ? response.getExternalCallsFail() : fail.intValue();
+            Instant finished = finishedAt;
+            return new JobStatus(
+                    id,
+                    state.label(),
+                    submittedAt.toString(),
+                    finished != null ? finished.toString() : null,
+                    count,
+                    callsOk + callsFail,
+                    callsOk,
+                    callsFail,
+                    response,
+                    error
+            );
+        }
+
+        private void onNext(Object payload) {
+            if (payload instanceof BatchResult batch) {
+                ok.add(batch.ok());
+                fail.add(batch.fail());
+            } else if (payload instanceof ProcessResponse response) {
+                result = response;
+            }
+        }
+
+        // First outcome wins (completion, error or cancel); state is written last
+        private boolean finish(State outcome, String reason) {
+            if (!settled.compareAndSet(0, 1)) {
+                return false;
+            }
+            finishedNanos = System.nanoTime();
+            finishedAt = Instant.now();
+            error = reason;
+            state = outcome;
+            return true;
+        }
+    }
+
+    private final ReactiveProcessor processor;
+    private final int capacity;
+    private final int maxRunning;
+    private final long ttlNanos;
+    // Submission order, so the first finished entry found is the oldest
+    private final LinkedHashMap<String, Job> jobs = new LinkedHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public JobRegistry(
+            ReactiveProcessor processor,
+            @Value("${app.jobs.capacity:1000}") int capacity,
+            @Value("${app.jobs.max-running:4}") int maxRunning,
+            @Value("${app.jobs.ttl-ms:600000}") long ttlMs
+    ) {
+        if (capacity <= 0 || maxRunning <= 0 || maxRunning > capacity || ttlMs < 0) {
+            throw new IllegalArgumentException("jobs need capacity > 0, 0 < max-running <= capacity and ttl-ms >= 0");
+        }
+        this.processor = processor;
+        this.capacity = capacity;
+        this.maxRunning = maxRunning;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /**
+     * Starts the run in the background and returns its job. Throws
+     * {@link RejectedExecutionException} when JOBS_MAX_RUNNING jobs are running or the store is
+     * full of running jobs.
+     */
+    public Job submit(ProcessRequest request) {
+        synchronized (jobs) {
+            evictExpired();
+            if (running.get() >= maxRunning) {
+                rejected.increment();
+                throw new RejectedExecutionException("max running jobs reached: " + maxRunning);
+            }
+            if (jobs.size() >= capacity && !evictOldestFinished()) {
+                rejected.increment();
+                throw new RejectedExecutionException("job store full: " + capacity);
+            }
+
+            Job job = new Job(request.getCount());
+            running.incrementAndGet();
+            jobs.put(job.id, job);
+            submitted.increment();
+            job.subscription = processor.processStream(request).subscribe(
+                    job::onNext,
+                    error -> finished(job, error instanceof TimeoutException ? State.CANCELLED : State.FAILED,
+                            error instanceof TimeoutException ? "deadline" : String.valueOf(error.getMessage())),
+                    () -> finished(job, State.SUCCEEDED, null));
+            return job;
+        }
+    }
+
+    // Null when unknown or expired
+    public Job get(String id) {
+        synchronized (jobs) {
+            evictExpired();
+            return jobs.get(id);
+        }
+    }
+
+    /**
+     * Cancels a running job, which keeps its entry with the counts reached so far; a finished
+     * job is removed instead. Null when unknown or expired.
+     */
+    public Job cancel(String id) {
+        synchronized (jobs) {
+            evictExpired();
+            Job job = jobs.get(id);
+            if (job == null) {
+                return null;
+            }
+            if (job.state == State.RUNNING) {
+                if (finished(job, State.CANCELLED, "cancelled")) {
+                    job.subscription.dispose();
+                }
+            } else {
+                jobs.remove(id);
+            }
+            return job;
+        }
+    }
+
+    public int running() {
+        return running.get();
+    }
+
+    public Map<String, Object> snapshot() {
+        int stored;
+        synchronized (jobs) {
+            stored = jobs.size();
+        }
+        return Map.of(
+                "capacity", capacity,
+                "max_running", maxRunning,
+                "ttl_ms", TimeUnit.NANOSECONDS.toMillis(ttlNanos),
+                "stored", stored,
+                "running", running(),
+                "submitted", submitted.sum(),
+                "rejected", rejected.sum()
+        );
+    }
+
+    private boolean finished(Job job, State outcome, String reason) {
+        if (!job.finish(outcome, reason)) {
+            return false;
+        }
+        running.decrementAndGet();
+        return true;
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(job -> job.state != State.RUNNING && now - job.finishedNanos >= ttlNanos);
+    }
+
+    private boolean evictOldestFinished() {
+        for (Iterator<Job> it = jobs.values().iterator(); it.hasNext(); ) {
+            if (it.next().state != State.RUNNING) {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,165 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import com.fernandoglizt.reactive.javareactor.config.ConnectionPoolStats;
+import com.fernandoglizt.reactive.javareactor.config.NettyTransport;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for /process, scraped at /actuator/prometheus. Every meter is resolved once
+ * here, so the hot path only does a nanoTime delta and a lock-free histogram update; pool, retry
+ * and event-loop figures are read at scrape time.
+ */
+@Component
+public class ProcessMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer callOk;
+    private final Timer callFail;
+    private final Timer batchDuration;
+    private final Timer runDuration;
+    private final DistributionSummary runEventsPerSec;
+    private final AtomicInteger inflight = new AtomicInteger();
+    // One timer per fair-queuing class; labels are bounded by FairQueuing
+    private final Map<String, Timer> queueTime = new ConcurrentHashMap<>();
+
+    public ProcessMetrics(MeterRegistry registry, RetryPolicy retryPolicy, ConnectionPoolStats poolStats,
+                          CircuitBreakers circuitBreakers, HedgePolicy hedgePolicy, CallCoalescer coalescer,
+                          NettyTransport nettyTransport) {
+        this.registry = registry;
+        this.callOk = callTimer(registry, "ok");
+        this.callFail = callTimer(registry, "fail");
+        this.batchDuration = Timer.builder("process.batch.duration")
+                .description("Time from a batch being subscribed to its last call returning")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(registry);
+        this.runDuration = Timer.builder("process.run.duration")
+                .description("Duration of one /process run")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(registry);
+        this.runEventsPerSec = DistributionSummary.builder("process.run.events.per.sec")
+                .description("Throughput of one /process run")
+                .register(registry);
+
+        FunctionCounter.builder("downstream.retries", retryPolicy, RetryPolicy::retriesIssued)
+                .tag("result", "issued").register(registry);
+        FunctionCounter.builder("downstream.retries", retryPolicy, RetryPolicy::retriesSuppressed)
+                .tag("result", "suppressed").register(registry);
+        FunctionCounter.builder("downstream.retries", retryPolicy, RetryPolicy::retriesSucceeded)
+                .tag("result", "succeeded").register(registry);
+        Gauge.builder("downstream.retry.budget.tokens", retryPolicy, RetryPolicy::budgetTokens)
+                .register(registry);
+
+        FunctionCounter.builder("downstream.fast.failed", circuitBreakers, CircuitBreakers::fastFailed)
+                .description("Calls refused by an open circuit breaker").register(registry);
+        FunctionCounter.builder("downstream.breaker.opened", circuitBreakers, CircuitBreakers::timesOpened)
+                .description("Circuit breaker transitions to open").register(registry);
+
+        FunctionCounter.builder("downstream.hedges", hedgePolicy, HedgePolicy::hedgesSent)
+                .tag("result", "sent").register(registry);
+        FunctionCounter.builder("downstream.hedges", hedgePolicy, HedgePolicy::hedgesWon)
+                .tag("result", "won").register(registry);
+
+        FunctionCounter.builder("downstream.coalescing", coalescer, CallCoalescer::hits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("downstream.coalescing", coalescer, CallCoalescer::misses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("downstream.coalescing", coalescer, CallCoalescer::coalesced)
+                .tag("result", "coalesced").register(registry);
+
+        Gauge.builder("downstream.inflight", inflight, AtomicInteger::get)
+                .description("Downstream exchanges subscribed and not yet finished")
+                .register(registry);
+        Gauge.builder("downstream.pool.active", poolStats, ConnectionPoolStats::active).register(registry);
+        Gauge.builder("downstream.pool.idle", poolStats, ConnectionPoolStats::idle).register(registry);
+        Gauge.builder("downstream.pool.pending", poolStats, ConnectionPoolStats::pending)
+                .description("Exchanges waiting to lease a connection")
+                .register(registry);
+        FunctionTimer.builder("downstream.pool.acquire", poolStats,
+                        ConnectionPoolStats::acquireCount, ConnectionPoolStats::acquireNanosTotal, TimeUnit.NANOSECONDS)
+                .register(registry);
+
+        Gauge.builder("eventloop.pending.tasks", nettyTransport, ProcessMetrics::pendingTasks)
+                .description("Tasks queued on the server and downstream event loops (saturation)")
+                .register(registry);
+    }
+
+    private static Timer callTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("downstream.call")
+                .description("Latency of one downstream attempt")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    private static int pendingTasks(NettyTransport nettyTransport) {
+        int pending = 0;
+        for (EventLoopGroup group : nettyTransport.groups()) {
+            for (EventExecutor executor : group) {
+                if (executor instanceof SingleThreadEventExecutor loop) {
+                    pending += loop.pendingTasks();
+                }
+            }
+        }
+        return pending;
+    }
+
+    public void gauge(String name, String description, Supplier<Number> value) {
+        Gauge.builder(name, value).description(description).register(registry);
+    }
+
+    public long callStarted() {
+        inflight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void callFinished(long startNanos, boolean ok) {
+        inflight.decrementAndGet();
+        (ok ? callOk : callFail).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void callCancelled() {
+        inflight.decrementAndGet();
+    }
+
+    public void recordQueueTime(String flowLabel, long nanos) {
+        queueTime.computeIfAbsent(flowLabel, label -> Timer.builder("downstream.queue.time")
+                .description("Time a call waited for a permit under the inflight limit, by fair-queuing class")
+                .tag("class", label)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBatch(long nanos) {
+        batchDuration.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRun(long durationMs, double eventsPerSec) {
+        runDuration.record(durationMs, TimeUnit.MILLISECONDS);
+        runEventsPerSec.record(eventsPerSec);
+    }
+}
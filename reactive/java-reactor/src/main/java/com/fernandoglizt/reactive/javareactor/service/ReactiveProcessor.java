@@ -1,5 +1,7 @@
 package com.fernandoglizt.reactive.javareactor.service;
 
+import com.fernandoglizt.reactive.javareactor.model.BatchReply;
+import com.fernandoglizt.reactive.javareactor.model.BatchResult;
 import com.fernandoglizt.reactive.javareactor.model.ProcessRequest;
 import com.fernandoglizt.reactive.javareactor.model.ProcessResponse;
 import org.slf4j.Logger;
@@ -9,12 +11,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.util.retry.Retry;
 
 import java.net.InetAddress;
+import java.net.URI;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 @Service
 public class ReactiveProcessor {
@@ -24,91 +34,462 @@ public class ReactiveProcessor {
     private final WebClient webClient;
     private final int batchConcurrency;
     private final int itemConcurrency;
-    private final int retryAttempts;
+    private final long timeoutMs;
+    private final CancellationStats cancellationStats;
+    private final RetryPolicy retryPolicy;
+    private final Retry retry;
+    private final DownstreamTargets downstreamTargets;
+    private final ProcessMetrics metrics;
+    private final AdaptiveLimit adaptiveLimit;
+    private final AsyncPermits permits;
+    private final CircuitBreakers circuitBreakers;
+    private final HedgePolicy hedgePolicy;
+    private final CallCoalescer coalescer;
+    private final FairQueuing fairQueuing;
+    private final boolean batchCalls;
 
     public ReactiveProcessor(
             WebClient webClient,
+            CancellationStats cancellationStats,
+            RetryPolicy retryPolicy,
+            DownstreamTargets downstreamTargets,
+            ProcessMetrics metrics,
+            AdaptiveLimit adaptiveLimit,
+            CircuitBreakers circuitBreakers,
+            HedgePolicy hedgePolicy,
+            CallCoalescer coalescer,
+            FairQueuing fairQueuing,
             @Value("${app.flatmap.batch-concurrency:4}") int batchConcurrency,
             @Value("${app.flatmap.item-concurrency:64}") int itemConcurrency,
-            @Value("${app.downstream.retry-attempts:1}") int retryAttempts
+            @Value("${app.process.timeout-ms:0}") long timeoutMs,
+            @Value("${app.downstream.call-mode:item}") String callMode
     ) {
+        if (!"item".equals(callMode) && !"batch".equals(callMode)) {
+            throw new IllegalArgumentException("call-mode must be item or batch: " + callMode);
+        }
         this.webClient = webClient;
+        this.cancellationStats = cancellationStats;
+        this.retryPolicy = retryPolicy;
+        this.downstreamTargets = downstreamTargets;
+        this.metrics = metrics;
+        this.adaptiveLimit = adaptiveLimit;
+        this.circuitBreakers = circuitBreakers;
+        this.hedgePolicy = hedgePolicy;
+        this.coalescer = coalescer;
+        this.fairQueuing = fairQueuing;
+        // Process-wide gate in front of the flatMaps, shared across runs by FAIR_QUEUING;
+        // BATCH x ITEM_CONCURRENCY stays the per-request cap
+        this.permits = new AsyncPermits(adaptiveLimit.limit());
+        adaptiveLimit.onChange(permits::resize);
+        metrics.gauge("downstream.limit", "Current process-wide inflight limit (" + adaptiveLimit.algorithm() + ")",
+                adaptiveLimit::limit);
+        metrics.gauge("downstream.limit.queued", "Calls waiting for a permit under the current limit",
+                permits::queued);
+        metrics.gauge("downstream.breakers.open", "Downstream hosts whose circuit breaker is open or half-open",
+                circuitBreakers::openCount);
         this.batchConcurrency = batchConcurrency;
         this.itemConcurrency = itemConcurrency;
-        this.retryAttempts = retryAttempts;
+        this.timeoutMs = timeoutMs;
+        this.batchCalls = "batch".equals(callMode);
+        // One spec for every call: budgeted retries, full-jitter delays on the parallel timer (no parked threads)
+        this.retry = Retry.from(signals -> signals.concatMap(signal -> {
+            int attempt = (int) signal.totalRetries();
+            if (signal.failure() instanceof CircuitOpenException || !retryPolicy.tryRetry(attempt)) {
+                return Mono.error(signal.failure());
+            }
+            return Mono.delay(Duration.ofMillis(retryPolicy.backoffMillis(attempt)));
+        }));
+    }
+
+    // Non-2xx answer; raised so that 5xx goes through the same retry policy as I/O errors
+    private static final class DownstreamStatusException extends RuntimeException {
+        DownstreamStatusException(int status) {
+            super("downstream status " + status, null, false, false);
+        }
+    }
+
+    // Refused by an open circuit breaker; never retried
+    private static final class CircuitOpenException extends RuntimeException {
+        CircuitOpenException() {
+            super("circuit open", null, false, false);
+        }
+    }
+
+    // Per-run counters, striped so concurrent completions on event-loop threads don't contend
+    private static final class Tally {
+        final FairQueuing.Flow flow;
+        final Instant startTime = Instant.now();
+        final long startNanos = System.nanoTime();
+        final LongAdder started = new LongAdder();
+        final LongAdder ok = new LongAdder();
+        final LongAdder fail = new LongAdder();
+        final LongAdder fastFailed = new LongAdder();
+        final LongAdder hedgesSent = new LongAdder();
+        final LongAdder hedgesWon = new LongAdder();
+        final LatencyRecorder firstAttemptLatency = new LatencyRecorder();
+        final LatencyRecorder callLatency = new LatencyRecorder();
+
+        Tally(FairQueuing.Flow flow) {
+            this.flow = flow;
+        }
+
+        void record(boolean success) {
+            (success ? ok : fail).increment();
+        }
+
+        int done() {
+            return ok.intValue() + fail.intValue();
+        }
     }
 
-    private static final class Acc {
-        final int processed;
-        final int ok;
-        final int fail;
-        Acc(int processed, int ok, int fail) { this.processed = processed; this.ok = ok; this.fail = fail; }
-        Acc incOk()   { return new Acc(processed + 1, ok + 1, fail); }
-        Acc incFail() { return new Acc(processed + 1, ok, fail + 1); }
+    // Result of one exchange in a hedged attempt, tagged with the copy that produced it
+    private record Outcome(boolean ok, boolean hedge) {
     }
 
+    // One downstream call across its retries; touched only from that call's serialized signals
+    private static final class CallState {
+        final long startNanos = System.nanoTime();
+        final CircuitBreakers.Breaker breaker;
+        int attempts;
+
+        CallState(CircuitBreakers.Breaker breaker) {
+            this.breaker = breaker;
+        }
+    }
+
+    /**
+     * Cancelling the returned Mono (client disconnect, or PROCESS_TIMEOUT_MS elapsed) cancels the
+     * range source, every pending batch and every in-flight WebClient exchange.
+     */
     public Mono<ProcessResponse> processEvents(ProcessRequest request) {
-        Instant startTime = Instant.now();
+        Tally tally = new Tally(fairQueuing.flowFor(request.getTenant()));
+
+        Mono<ProcessResponse> result = runBatches(request, tally)
+                .then(Mono.fromCallable(() -> summarize(request, tally)));
+
+        if (timeoutMs > 0) {
+            result = result.timeout(Duration.ofMillis(timeoutMs));
+        }
+
+        return result
+                .doOnCancel(() -> recordCancelled("disconnect", request, tally))
+                .doOnError(TimeoutException.class, e -> recordCancelled("deadline", request, tally));
+    }
+
+    /**
+     * Same run as {@link #processEvents}, emitting a {@link BatchResult} as each batch finishes and
+     * the {@link ProcessResponse} summary last. Batches are only requested as the subscriber
+     * consumes results, so a slow reader holds back new downstream calls.
+     */
+    public Flux<Object> processStream(ProcessRequest request) {
+        Tally tally = new Tally(fairQueuing.flowFor(request.getTenant()));
+
+        Flux<Object> result = runBatches(request, tally)
+                .<Object>map(batch -> batch)
+                .concatWith(Mono.fromCallable(() -> summarize(request, tally)));
+
+        if (timeoutMs > 0) {
+            // Deadline for the whole run, not per element: every element re-subscribes to the same cached timer
+            Mono<Long> deadline = Mono.delay(Duration.ofMillis(timeoutMs)).cache();
+            result = result.timeout(deadline, item -> deadline);
+        }
+
+        return result
+                .doOnCancel(() -> recordCancelled("disconnect", request, tally))
+                .doOnError(TimeoutException.class, e -> recordCancelled("deadline", request, tally));
+    }
+
+    private Flux<BatchResult> runBatches(ProcessRequest request, Tally tally) {
+        int batchSize = request.getBatch();
+        if (batchCalls) {
+            URI target = downstreamTargets.resolveBatch(request.getDownstreamUrl(), request.getIoDelayMs());
+            CircuitBreakers.Breaker breaker = circuitBreakers.forTarget(target);
+            return Flux.range(0, BatchRange.countFor(request.getCount(), batchSize))
+                    .flatMap(index -> processBatchCall(BatchRange.at(index, request.getCount(), batchSize),
+                            target, breaker, tally), batchConcurrency);
+        }
+        URI target = downstreamTargets.resolve(request.getDownstreamUrl(), request.getIoDelayMs());
+        CircuitBreakers.Breaker breaker = circuitBreakers.forTarget(target);
+        Supplier<Mono<Boolean>> call = request.isCoalesce()
+                ? () -> coalescer.get(target, Mono.defer(() -> callWithRetry(target, breaker, tally)))
+                : () -> callWithRetry(target, breaker, tally);
+
+        return Flux.range(0, BatchRange.countFor(request.getCount(), batchSize))
+                .flatMap(index -> processBatch(BatchRange.at(index, request.getCount(), batchSize), call, tally),
+                        batchConcurrency);
+    }
+
+    private ProcessResponse summarize(ProcessRequest request, Tally tally) {
+        int externalCallsOk = tally.ok.intValue();
+        int externalCallsFail = tally.fail.intValue();
+        int processedEvents = externalCallsOk + externalCallsFail;
+        int batches = BatchRange.countFor(processedEvents, request.getBatch());
+        long durationMs = Duration.between(tally.startTime, Instant.now()).toMillis();
+        double eventsPerSec = durationMs > 0 ? (processedEvents * 1000.0) / durationMs : 0.0;
+
+        ProcessResponse response = new ProcessResponse(
+                externalCallsFail == 0,
+                request.getCount(),
+                request.getBatch(),
+                request.getIoDelayMs(),
+                request.getDownstreamUrl(),
+                processedEvents,
+                batches,
+                externalCallsOk,
+                externalCallsFail,
+                durationMs,
+                eventsPerSec,
+                Instant.now().toString(),
+                getHostname(),
+                "webflux non-blocking"
+        );
+        response.setLatencyFirstAttemptMs(tally.firstAttemptLatency.summary());
+        response.setLatencyWithRetriesMs(tally.callLatency.summary());
+        response.setCallsFastFailed(tally.fastFailed.intValue());
+        response.setHedgesSent(tally.hedgesSent.intValue());
+        response.setHedgesWon(tally.hedgesWon.intValue());
+
+        metrics.recordRun(durationMs, eventsPerSec);
+        logger.info("Process completed: processedEvents={}, externalCallsOk={}, externalCallsFail={}, durationMs={}, eventsPerSec={}",
+                processedEvents, externalCallsOk, externalCallsFail, durationMs, eventsPerSec);
+
+        return response;
+    }
 
-        return Flux.range(1, request.getCount())
+    private void recordCancelled(String reason, ProcessRequest request, Tally tally) {
+        int started = tally.started.intValue();
+        int avoided = Math.max(0, request.getCount() - started);
+        int interrupted = Math.max(0, started - tally.done());
+        cancellationStats.record(avoided, interrupted);
+        logger.warn("Run cancelled ({}): {} calls avoided, {} in-flight calls cancelled", reason, avoided, interrupted);
+    }
+
+    // Items are never materialized: each batch is a [start, end) range and results go straight into the tally
+    private Mono<BatchResult> processBatch(BatchRange batch, Supplier<Mono<Boolean>> call, Tally tally) {
+        long batchStart = System.nanoTime();
+        // ok / fail of this batch; written from the serialized flatMap output, so plain ints suffice
+        int[] counts = new int[2];
+
+        // Same per-item CPU work as the imperative engines
+        return Flux.range(batch.start(), batch.length())
                 .map(i -> i * 2)
                 .filter(i -> i % 2 == 0)
-                .buffer(request.getBatch())
-                .flatMap(lote -> processBatch(lote, request), batchConcurrency)
-                .reduce(new Acc(0, 0, 0), (acc, ok) -> ok ? acc.incOk() : acc.incFail())
-                .map(acc -> {
-                    int processedEvents = acc.processed;
-                    int externalCallsOk = acc.ok;
-                    int externalCallsFail = acc.fail;
-                    int batches = (processedEvents + request.getBatch() - 1) / request.getBatch();
-                    long durationMs = Duration.between(startTime, Instant.now()).toMillis();
-                    double eventsPerSec = durationMs > 0 ? (processedEvents * 1000.0) / durationMs : 0.0;
-
-                    ProcessResponse response = new ProcessResponse(
-                            externalCallsFail == 0,
-                            request.getCount(),
-                            request.getBatch(),
-                            request.getIoDelayMs(),
-                            request.getDownstreamUrl(),
-                            processedEvents,
-                            batches,
-                            externalCallsOk,
-                            externalCallsFail,
-                            durationMs,
-                            eventsPerSec,
-                            Instant.now().toString(),
-                            getHostname(),
-                            "webflux non-blocking"
+                .flatMap(value -> {
+                            tally.started.increment();
+                            return call.get();
+                        },
+                        itemConcurrency
+                )
+                .doOnNext(ok -> {
+                    tally.record(ok);
+                    counts[ok ? 0 : 1]++;
+                })
+                .then(Mono.fromCallable(() -> {
+                    long now = System.nanoTime();
+                    metrics.recordBatch(now - batchStart);
+                    int done = tally.done();
+                    long runNanos = now - tally.startNanos;
+                    return new BatchResult(
+                            batch.index(),
+                            counts[0],
+                            counts[1],
+                            (now - batchStart) / 1_000_000,
+                            done,
+                            runNanos > 0 ? done * 1_000_000_000.0 / runNanos : 0.0
                     );
+                }));
+    }
 
-                    logger.info("Process completed: processedEvents={}, externalCallsOk={}, externalCallsFail={}, durationMs={}, eventsPerSec={}",
-                            processedEvents, externalCallsOk, externalCallsFail, durationMs, eventsPerSec);
+    /**
+     * CALL_MODE=batch: one POST /slow/batch per batch. slow-io names the ids that failed, so items
+     * are still counted one by one; retries, the breaker and the latency histograms apply per
+     * batch request. Hedging and coalescing only apply to item calls.
+     */
+    private Mono<BatchResult> processBatchCall(BatchRange batch, URI target, CircuitBreakers.Breaker breaker, Tally tally) {
+        long batchStart = System.nanoTime();
+        int items = batch.length();
+        tally.started.add(items);
+        retryPolicy.onCall();
+        CallState call = new CallState(breaker);
 
-                    return response;
+        return Mono.defer(() -> call.breaker.tryAcquire()
+                        ? postBatch(target, batch, call, tally)
+                        : Mono.<Integer>error(new CircuitOpenException()))
+                .retryWhen(retry)
+                .onErrorResume(CircuitOpenException.class, e -> {
+                    tally.fastFailed.add(items);
+                    return Mono.just(items);
+                })
+                .onErrorReturn(items)
+                .map(failed -> {
+                    if (failed < items && call.attempts > 1) {
+                        retryPolicy.onRetrySucceeded();
+                    }
+                    long now = System.nanoTime();
+                    tally.callLatency.recordNanos(now - call.startNanos);
+                    tally.ok.add(items - failed);
+                    tally.fail.add(failed);
+                    metrics.recordBatch(now - batchStart);
+                    int done = tally.done();
+                    long runNanos = now - tally.startNanos;
+                    return new BatchResult(
+                            batch.index(),
+                            items - failed,
+                            failed,
+                            (now - batchStart) / 1_000_000,
+                            done,
+                            runNanos > 0 ? done * 1_000_000_000.0 / runNanos : 0.0
+                    );
                 });
     }
 
-    private Flux<Boolean> processBatch(List<Integer> batch, ProcessRequest request) {
-        return Flux.fromIterable(batch)
-                .flatMap(value -> callDownstreamService(value, request)
-                        .retryWhen(Retry.backoff(retryAttempts, Duration.ofMillis(100)).maxBackoff(Duration.ofMillis(300))),
-                        itemConcurrency
-                );
+    // Emits how many items of the batch failed; a non-2xx answer fails the whole attempt
+    private Mono<Integer> postBatch(URI target, BatchRange batch, CallState call, Tally tally) {
+        long attemptStart = System.nanoTime();
+        boolean first = ++call.attempts == 1;
+        int items = batch.length();
+        return acquirePermit(tally).flatMap(permit -> {
+            long start = metrics.callStarted();
+            return webClient.post()
+                    .uri(target)
+                    .bodyValue(Map.of("ids", IntStream.range(batch.start(), batch.end()).toArray()))
+                    .exchangeToMono(resp -> {
+                        int status = resp.statusCode().value();
+                        return resp.statusCode().is2xxSuccessful()
+                                ? resp.bodyToMono(BatchReply.class)
+                                        .map(reply -> reply.failed() == null ? 0 : Math.min(items, reply.failed().length))
+                                        .defaultIfEmpty(0)
+                                : resp.releaseBody().then(Mono.error(new DownstreamStatusException(status)));
+                    })
+                    .doOnSuccess(failed -> {
+                        metrics.callFinished(start, true);
+                        finished(start, attemptStart, first, true, call, tally);
+                    })
+                    .doOnError(e -> {
+                        metrics.callFinished(start, false);
+                        finished(start, attemptStart, first, false, call, tally);
+                    })
+                    .doOnCancel(() -> {
+                        metrics.callCancelled();
+                        call.breaker.onCancelled();
+                    })
+                    .doFinally(signal -> permit.release());
+        });
     }
 
-    private Mono<Boolean> callDownstreamService(Integer value, ProcessRequest request) {
-        String url = appendDelayParam(request.getDownstreamUrl(), request.getIoDelayMs());
+    private Mono<Boolean> callWithRetry(URI target, CircuitBreakers.Breaker breaker, Tally tally) {
+        retryPolicy.onCall();
+        hedgePolicy.onCall();
+        CallState call = new CallState(breaker);
 
-        return webClient.get()
-                .uri(url)
-                .exchangeToMono(resp -> resp.releaseBody().thenReturn(resp.statusCode().is2xxSuccessful()));
+        return callDownstreamService(target, call, tally)
+                .retryWhen(retry)
+                .onErrorResume(CircuitOpenException.class, e -> {
+                    tally.fastFailed.increment();
+                    return Mono.just(false);
+                })
+                .onErrorReturn(false)
+                .doOnNext(ok -> {
+                    if (ok && call.attempts > 1) {
+                        retryPolicy.onRetrySucceeded();
+                    }
+                    tally.callLatency.recordNanos(System.nanoTime() - call.startNanos);
+                });
     }
 
-    private String appendDelayParam(String url, int delay) {
-        if (url.contains("?")) {
-            return url + "&delay_ms=" + delay;
-        } else {
-            return url + "?delay_ms=" + delay;
+    private Mono<Boolean> callDownstreamService(URI target, CallState call, Tally tally) {
+        // Checked per attempt, before queueing for a permit, so an open host costs no wait and no I/O
+        return Mono.defer(() -> call.breaker.tryAcquire()
+                ? attempt(target, call, tally)
+                : Mono.error(new CircuitOpenException()));
+    }
+
+    /**
+     * Past the hedge delay a second exchange races the first. Only a success wins and cancels the
+     * other copy; the attempt fails once every copy sent has failed. A primary that fails before
+     * the delay fails the attempt right away instead of sending the hedge.
+     * The breaker outcome, limit sample and latencies are recorded once per attempt, from how the
+     * attempt as a whole ended, so a hedged attempt still answers its single breaker permit once.
+     */
+    private Mono<Boolean> attempt(URI target, CallState call, Tally tally) {
+        long attemptStart = System.nanoTime();
+        boolean first = ++call.attempts == 1;
+        AtomicLong sentAt = new AtomicLong();
+        return race(target, sentAt, call, tally)
+                .doOnSuccess(ok -> finished(sentAt.get(), attemptStart, first, true, call, tally))
+                .doOnError(e -> finished(sentAt.get(), attemptStart, first, false, call, tally))
+                .doOnCancel(call.breaker::onCancelled);
+    }
+
+    private Mono<Boolean> race(URI target, AtomicLong sentAt, CallState call, Tally tally) {
+        Mono<Boolean> primary = exchange(target, sentAt, tally);
+        long delay = hedgePolicy.delayNanos();
+        if (delay < 0 || call.breaker.state() != CircuitBreakers.State.CLOSED) {
+            return primary;
+        }
+
+        Sinks.Empty<Void> primaryFailed = Sinks.empty();
+        Mono<Outcome> hedge = Mono.firstWithSignal(
+                        Mono.delay(Duration.ofNanos(delay)),
+                        primaryFailed.asMono().then(Mono.<Long>empty()))
+                .flatMap(tick -> {
+                    if (!hedgePolicy.tryHedge()) {
+                        return Mono.empty();
+                    }
+                    tally.hedgesSent.increment();
+                    return exchange(target, sentAt, tally).map(ok -> new Outcome(ok, true));
+                });
+        return Mono.firstWithValue(
+                        primary.map(ok -> new Outcome(ok, false)).doOnError(e -> primaryFailed.tryEmitEmpty()),
+                        hedge)
+                // Every copy failed, or the hedge was never sent: surface the primary's own error to the retry spec
+                .onErrorMap(NoSuchElementException.class,
+                        e -> e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e)
+                .map(outcome -> {
+                    if (outcome.hedge() && outcome.ok()) {
+                        hedgePolicy.onHedgeWon();
+                        tally.hedgesWon.increment();
+                    }
+                    return outcome.ok();
+                });
+    }
+
+    // One copy on the wire; sentAt keeps when the attempt's first copy got its permit
+    private Mono<Boolean> exchange(URI target, AtomicLong sentAt, Tally tally) {
+        return acquirePermit(tally).flatMap(permit -> {
+            long start = metrics.callStarted();
+            sentAt.compareAndSet(0, start);
+            return webClient.get()
+                    .uri(target)
+                    .exchangeToMono(resp -> {
+                        int status = resp.statusCode().value();
+                        return resp.releaseBody().then(resp.statusCode().is2xxSuccessful()
+                                ? Mono.just(Boolean.TRUE)
+                                : Mono.error(new DownstreamStatusException(status)));
+                    })
+                    .doOnSuccess(ok -> metrics.callFinished(start, true))
+                    .doOnError(e -> metrics.callFinished(start, false))
+                    .doOnCancel(metrics::callCancelled)
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    private Mono<AsyncPermits.Permit> acquirePermit(Tally tally) {
+        return permits.acquire(tally.flow.key(), tally.flow.weight())
+                .doOnNext(permit -> metrics.recordQueueTime(tally.flow.label(), permit.queuedNanos()));
+    }
+
+    // A start of 0 means no copy got a permit, so the whole wait counts
+    private void finished(long start, long attemptStart, boolean first, boolean ok, CallState call, Tally tally) {
+        long now = System.nanoTime();
+        long rtt = now - (start != 0 ? start : attemptStart);
+        adaptiveLimit.onSample(rtt, permits.inflight(), !ok);
+        call.breaker.onResult(rtt, ok);
+        if (ok) {
+            hedgePolicy.recordLatency(now - attemptStart);
+        }
+        if (first) {
+            tally.firstAttemptLatency.recordNanos(now - attemptStart);
         }
     }
 
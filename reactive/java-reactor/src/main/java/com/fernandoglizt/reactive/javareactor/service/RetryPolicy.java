@@ -0,0 +1,120 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retry rules shared by every run: up to RETRY_ATTEMPTS retries per call, full-jitter
+ * exponential backoff capped at RETRY_BACKOFF_MAX_MS (300 ms per the parity rules), and a
+ * token-bucket budget so retries stay a fraction of first attempts when the downstream degrades.
+ * Every first attempt deposits RETRY_BUDGET_RATIO tokens (bucket capped at
+ * RETRY_BUDGET_MAX_TOKENS, starting full); every retry withdraws one.
+ */
+@Component
+public class RetryPolicy {
+
+    private static final long MILLI = 1000;
+
+    private final int maxRetries;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final long depositMilliTokens;
+    private final long maxMilliTokens;
+    private final AtomicLong milliTokens;
+
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+
+    public RetryPolicy(
+            @Value("${app.downstream.retry-attempts:1}") int maxRetries,
+            @Value("${app.retry.backoff-base-ms:100}") long baseBackoffMs,
+            @Value("${app.retry.backoff-max-ms:300}") long maxBackoffMs,
+            @Value("${app.retry.budget-ratio:0.1}") double budgetRatio,
+            @Value("${app.retry.budget-max-tokens:100}") int budgetMaxTokens
+    ) {
+        if (maxRetries < 0 || baseBackoffMs <= 0 || maxBackoffMs < baseBackoffMs) {
+            throw new IllegalArgumentException("invalid retry settings");
+        }
+        if (budgetRatio < 0 || budgetMaxTokens < 0) {
+            throw new IllegalArgumentException("retry budget must be >= 0");
+        }
+        this.maxRetries = maxRetries;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.depositMilliTokens = Math.round(budgetRatio * MILLI);
+        this.maxMilliTokens = budgetMaxTokens * MILLI;
+        this.milliTokens = new AtomicLong(maxMilliTokens);
+    }
+
+    public int maxRetries() {
+        return maxRetries;
+    }
+
+    // Called once per first attempt
+    public void onCall() {
+        if (milliTokens.get() < maxMilliTokens) {
+            milliTokens.accumulateAndGet(depositMilliTokens, (current, deposit) -> Math.min(maxMilliTokens, current + deposit));
+        }
+    }
+
+    /**
+     * Whether retry number {@code retry} (0-based) may be issued. Consumes a budget token when allowed.
+     */
+    public boolean tryRetry(int retry) {
+        if (retry >= maxRetries) {
+            return false;
+        }
+        long current;
+        do {
+            current = milliTokens.get();
+            if (current < MILLI) {
+                suppressed.increment();
+                return false;
+            }
+        } while (!milliTokens.compareAndSet(current, current - MILLI));
+        issued.increment();
+        return true;
+    }
+
+    public void onRetrySucceeded() {
+        succeeded.increment();
+    }
+
+    // Full jitter: uniform in [0, min(max, base * 2^retry)]
+    public long backoffMillis(int retry) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(retry, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public double budgetTokens() {
+        return milliTokens.get() / (double) MILLI;
+    }
+
+    public long retriesIssued() {
+        return issued.sum();
+    }
+
+    public long retriesSuppressed() {
+        return suppressed.sum();
+    }
+
+    public long retriesSucceeded() {
+        return succeeded.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        return Map.of(
+            "max_retries", maxRetries,
+            "budget_tokens", budgetTokens(),
+            "retries_issued", retriesIssued(),
+            "retries_suppressed", retriesSuppressed(),
+            "retries_succeeded", retriesSucceeded()
+        );
+    }
+}
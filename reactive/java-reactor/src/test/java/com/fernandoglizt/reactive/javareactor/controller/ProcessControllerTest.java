@@ -1,8 +1,19 @@
 package com.fernandoglizt.reactive.javareactor.controller;
 
+import com.fernandoglizt.reactive.javareactor.config.ConnectionPoolStats;
+import com.fernandoglizt.reactive.javareactor.config.NettyTransport;
+import com.fernandoglizt.reactive.javareactor.model.BatchResult;
 import com.fernandoglizt.reactive.javareactor.model.ProcessRequest;
 import com.fernandoglizt.reactive.javareactor.model.ProcessResponse;
+import com.fernandoglizt.reactive.javareactor.service.AdaptiveLimit;
+import com.fernandoglizt.reactive.javareactor.service.CallCoalescer;
+import com.fernandoglizt.reactive.javareactor.service.CancellationStats;
+import com.fernandoglizt.reactive.javareactor.service.CircuitBreakers;
+import com.fernandoglizt.reactive.javareactor.service.FairQueuing;
+import com.fernandoglizt.reactive.javareactor.service.HedgePolicy;
+import com.fernandoglizt.reactive.javareactor.service.JobRegistry;
 import com.fernandoglizt.reactive.javareactor.service.ReactiveProcessor;
+import com.fernandoglizt.reactive.javareactor.service.RetryPolicy;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
@@ -12,8 +23,12 @@ import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -34,6 +49,56 @@ class ProcessControllerTest {
         public ReactiveProcessor reactiveProcessor() {
             return mock(ReactiveProcessor.class);
         }
+
+        @Bean
+        public CancellationStats cancellationStats() {
+            return new CancellationStats();
+        }
+
+        @Bean
+        public RetryPolicy retryPolicy() {
+            return new RetryPolicy(1, 100, 300, 0.1, 100);
+        }
+
+        @Bean
+        public ConnectionPoolStats connectionPoolStats() {
+            return new ConnectionPoolStats();
+        }
+
+        @Bean
+        public AdaptiveLimit adaptiveLimit() {
+            return new AdaptiveLimit("fixed", 256, 8, 1024, 1000);
+        }
+
+        @Bean
+        public CircuitBreakers circuitBreakers() {
+            return new CircuitBreakers(true, 100, 20, 50, 1000, 80, 5000, 5);
+        }
+
+        @Bean
+        public HedgePolicy hedgePolicy() {
+            return new HedgePolicy(false, 0, 5, 100);
+        }
+
+        @Bean
+        public CallCoalescer callCoalescer() {
+            return new CallCoalescer(1000, 1024);
+        }
+
+        @Bean
+        public NettyTransport nettyTransport() {
+            return new NettyTransport("nio", "shared", 1, 1);
+        }
+
+        @Bean
+        public FairQueuing fairQueuing() {
+            return new FairQueuing("request", "");
+        }
+
+        @Bean
+        public JobRegistry jobRegistry(ReactiveProcessor reactiveProcessor) {
+            return new JobRegistry(reactiveProcessor, 16, 4, 60_000);
+        }
     }
 
     @Test
@@ -97,6 +162,77 @@ class ProcessControllerTest {
                 .expectStatus().isBadRequest();
     }
 
+    @Test
+    void shouldStreamBatchesThenSummaryAsNdjson() {
+        ProcessRequest request = new ProcessRequest(4, 2, 0, "http://slow-io:8080/slow");
+        when(reactiveProcessor.processStream(any(ProcessRequest.class))).thenReturn(Flux.just(
+                new BatchResult(0, 2, 0, 5, 2, 400.0),
+                new BatchResult(1, 1, 1, 6, 4, 500.0),
+                new ProcessResponse(false, 4, 2, 0, "http://slow-io:8080/slow", 4, 2, 3, 1, 8, 500.0,
+                        "2026-01-01T00:00:00Z", "node", "webflux non-blocking")
+        ));
+
+        webTestClient.post()
+                .uri("/process/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .value(body -> {
+                    String[] lines = body.trim().split("\n");
+                    assertEquals(3, lines.length);
+                    assertTrue(lines[0].contains("\"batch\":0"));
+                    assertTrue(lines[1].contains("\"fail\":1"));
+                    assertTrue(lines[2].contains("\"processed_events\":4"));
+                });
+    }
+
+    @Test
+    void shouldReturn400OnStreamWhenBatchIsZero() {
+        ProcessRequest request = new ProcessRequest(100, 0, 50, "http://slow-io:8080/slow");
+
+        webTestClient.post()
+                .uri("/process/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldRunJobsInTheBackgroundAndCancelThem() {
+        ProcessRequest request = new ProcessRequest(4, 2, 0, "http://slow-io:8080/slow");
+        // One batch done, then the run hangs until the job is cancelled
+        when(reactiveProcessor.processStream(any(ProcessRequest.class))).thenReturn(Flux.concat(
+                Flux.just(new BatchResult(0, 1, 1, 5, 2, 400.0)), Flux.never()));
+
+        String location = webTestClient.post()
+                .uri("/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("running")
+                .jsonPath("$.processed_events").isEqualTo(2)
+                .returnResult()
+                .getResponseHeaders().getLocation().toString();
+
+        webTestClient.delete().uri(location).exchange().expectStatus().isAccepted();
+        webTestClient.get()
+                .uri(location)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.state").isEqualTo("cancelled")
+                .jsonPath("$.external_calls_fail").isEqualTo(1);
+        webTestClient.get().uri("/jobs/unknown").exchange().expectStatus().isNotFound();
+    }
+
     @Test
     void shouldReturnHealthCheck() {
         webTestClient.get()
@@ -119,6 +255,7 @@ class ProcessControllerTest {
                 .expectBody()
                 .jsonPath("$.name").isEqualTo("java-reactor")
                 .jsonPath("$.version").exists()
-                .jsonPath("$.description").exists();
+                .jsonPath("$.description").exists()
+                .jsonPath("$.eventLoops.transport").isEqualTo("nio");
     }
 }
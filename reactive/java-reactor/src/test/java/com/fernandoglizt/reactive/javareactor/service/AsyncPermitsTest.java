@@ -0,0 +1,138 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncPermitsTest {
+
+    @Test
+    void shouldQueueBeyondLimitAndHandOverOnRelease() {
+        AsyncPermits permits = new AsyncPermits(2);
+        List<AsyncPermits.Permit> granted = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            permits.acquire().subscribe(granted::add);
+        }
+        assertEquals(2, granted.size());
+        assertEquals(1, permits.queued());
+
+        granted.get(0).release();
+        granted.get(0).release();
+        assertEquals(3, granted.size());
+        assertEquals(2, permits.inflight());
+        assertEquals(0, permits.queued());
+    }
+
+    @Test
+    void shouldGiveUpPlaceWhenCancelledAndFollowResize() {
+        AsyncPermits permits = new AsyncPermits(1);
+        List<AsyncPermits.Permit> granted = new ArrayList<>();
+
+        permits.acquire().subscribe(granted::add);
+        Disposable waiting = permits.acquire().subscribe(granted::add);
+        waiting.dispose();
+        assertEquals(0, permits.queued());
+
+        permits.acquire().subscribe(granted::add);
+        permits.acquire().subscribe(granted::add);
+        permits.resize(3);
+        assertEquals(3, granted.size());
+        assertEquals(3, permits.inflight());
+    }
+
+    @Test
+    void shouldReturnAPermitHandedToAWaiterThatCancelledMeanwhile() throws InterruptedException {
+        AsyncPermits permits = new AsyncPermits(1);
+
+        // Races a release, which claims the waiter and emits to it, against the waiter cancelling
+        for (int i = 0; i < 20_000; i++) {
+            AsyncPermits.Permit held = permits.acquire().block();
+            // Holds the permit until cancelled, like a call: flatMap into an exchange that releases in doFinally
+            Disposable waiting = permits.acquire()
+                    .flatMap(permit -> Mono.never().doFinally(signal -> permit.release()))
+                    .subscribe();
+            CountDownLatch go = new CountDownLatch(1);
+            Thread releaser = Thread.ofPlatform().start(() -> {
+                awaitQuietly(go);
+                held.release();
+            });
+            go.countDown();
+            waiting.dispose();
+            releaser.join();
+
+            assertEquals(0, permits.inflight(), "permit leaked in round " + i);
+            assertEquals(0, permits.queued());
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void shouldShareFreedPermitsFairlyAcrossFlows() {
+        AsyncPermits permits = new AsyncPermits(1);
+        List<String> order = new ArrayList<>();
+        List<AsyncPermits.Permit> granted = new ArrayList<>();
+        Object large = new Object();
+        Object small = new Object();
+
+        permits.acquire(large, 1).subscribe(granted::add);
+        // A deep backlog from one flow, then a short one from another
+        for (int i = 0; i < 6; i++) {
+            permits.acquire(large, 1).subscribe(permit -> {
+                order.add("large");
+                granted.add(permit);
+            });
+        }
+        for (int i = 0; i < 2; i++) {
+            permits.acquire(small, 1).subscribe(permit -> {
+                order.add("small");
+                granted.add(permit);
+            });
+        }
+
+        for (int i = 0; i < 4; i++) {
+            granted.get(i).release();
+        }
+        // Both short-flow calls went within the next four permits, not after the six queued before them
+        assertEquals(2, order.stream().filter("small"::equals).count());
+        assertEquals(4, permits.queued());
+    }
+
+    @Test
+    void shouldServeFlowsInProportionToTheirWeight() {
+        AsyncPermits permits = new AsyncPermits(1);
+        List<String> order = new ArrayList<>();
+        List<AsyncPermits.Permit> granted = new ArrayList<>();
+
+        permits.acquire().subscribe(granted::add);
+        for (int i = 0; i < 6; i++) {
+            permits.acquire("gold", 2).subscribe(permit -> {
+                order.add("gold");
+                granted.add(permit);
+            });
+            permits.acquire("bronze", 1).subscribe(permit -> {
+                order.add("bronze");
+                granted.add(permit);
+            });
+        }
+
+        for (int i = 0; i < 6; i++) {
+            granted.get(i).release();
+        }
+        assertEquals(4, order.stream().filter("gold"::equals).count());
+        assertEquals(2, order.stream().filter("bronze"::equals).count());
+    }
+}
@@ -0,0 +1,92 @@
+package com.fernandoglizt.reactive.javareactor.service;
+
+import com.fernandoglizt.reactive.javareactor.config.ConnectionPoolStats;
+import com.fernandoglizt.reactive.javareactor.config.NettyTransport;
+import com.fernandoglizt.reactive.javareactor.fixture.SlowIoStub;
+import com.fernandoglizt.reactive.javareactor.model.ProcessRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// ReactiveProcessor over a real WebClient and sockets, against the in-process slow-io stub
+class ReactiveProcessorEndToEndTest {
+
+    private SlowIoStub slowIo;
+    private NettyTransport transport;
+    private ConnectionProvider pool;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        slowIo = SlowIoStub.start();
+        transport = new NettyTransport("nio", "shared", 1, 1);
+        pool = ConnectionProvider.builder("slow-io-stub")
+                .maxConnections(256)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(pool).runOn(transport.clientLoops())))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.dispose();
+        transport.destroy();
+        slowIo.close();
+    }
+
+    private ReactiveProcessor processor(String callMode) {
+        RetryPolicy retryPolicy = new RetryPolicy(0, 100, 300, 0.1, 100);
+        // Off, its default: slow cold-start connections would otherwise trip it mid-test
+        CircuitBreakers breakers = new CircuitBreakers(false, 100, 20, 50, 1000, 80, 5000, 5);
+        HedgePolicy hedgePolicy = new HedgePolicy(false, 0, 5, 100);
+        CallCoalescer coalescer = new CallCoalescer(1000, 1024);
+        ProcessMetrics metrics = new ProcessMetrics(new SimpleMeterRegistry(), retryPolicy,
+                new ConnectionPoolStats(), breakers, hedgePolicy, coalescer, transport);
+        return new ReactiveProcessor(webClient, new CancellationStats(), retryPolicy, new DownstreamTargets(4),
+                metrics, new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers, hedgePolicy, coalescer,
+                new FairQueuing("request", ""), 4, 64, 0, callMode);
+    }
+
+    @Test
+    void shouldOverlapCallsAcrossBatchesAgainstSlowIo() {
+        StepVerifier.create(processor("item").processEvents(new ProcessRequest(1024, 100, 200, slowIo.url())))
+                .assertNext(response -> {
+                    assertTrue(response.isOk());
+                    assertEquals(1024, response.getExternalCallsOk());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(60));
+        assertEquals(1024, slowIo.served());
+        // More than one batch's ITEM_CONCURRENCY waited on slow-io at once, never more than 4 x 64
+        assertTrue(slowIo.maxPending() > 64, "max pending was " + slowIo.maxPending());
+        assertTrue(slowIo.maxPending() <= 256, "max pending was " + slowIo.maxPending());
+    }
+
+    @Test
+    void shouldCountIdsThatSlowIoFailsInBatchMode() {
+        StepVerifier.create(processor("batch").processEvents(
+                        new ProcessRequest(250, 100, 20, slowIo.url() + "?fail_rate=1")))
+                .assertNext(response -> {
+                    assertEquals(250, response.getProcessedEvents());
+                    assertEquals(0, response.getExternalCallsOk());
+                    assertEquals(250, response.getExternalCallsFail());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(30));
+        assertEquals(3, slowIo.served());
+    }
+}
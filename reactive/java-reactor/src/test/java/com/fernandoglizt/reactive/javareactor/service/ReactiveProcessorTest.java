@@ -1,18 +1,326 @@
 package com.fernandoglizt.reactive.javareactor.service;
 
+import com.fernandoglizt.reactive.javareactor.config.ConnectionPoolStats;
+import com.fernandoglizt.reactive.javareactor.config.NettyTransport;
 import com.fernandoglizt.reactive.javareactor.model.ProcessRequest;
 import com.fernandoglizt.reactive.javareactor.model.ProcessResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 class ReactiveProcessorTest {
 
+    private static final NettyTransport LOOPS = new NettyTransport("nio", "shared", 1, 1);
+
+    private static ProcessMetrics metrics() {
+        return new ProcessMetrics(new SimpleMeterRegistry(), new RetryPolicy(1, 100, 300, 0.1, 100),
+                new ConnectionPoolStats(), breakers(),
+                new HedgePolicy(false, 0, 5, 100), new CallCoalescer(1000, 1024), LOOPS);
+    }
+
+    private static CircuitBreakers breakers() {
+        return new CircuitBreakers(true, 100, 20, 50, 1000, 80, 5000, 5);
+    }
+
     @Test
     void shouldCreateReactiveProcessor() {
         WebClient webClient = WebClient.builder().build();
-        ReactiveProcessor processor = new ReactiveProcessor(webClient, 64, 1);
+        ReactiveProcessor processor = new ReactiveProcessor(webClient, new CancellationStats(),
+                new RetryPolicy(1, 100, 300, 0.1, 100), new DownstreamTargets(4), metrics(),
+                new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers(),
+                new HedgePolicy(false, 0, 5, 100), new CallCoalescer(1000, 1024),
+                new FairQueuing("request", ""), 4, 64, 0, "item");
         
         assert processor != null;
     }
+
+    @Test
+    void shouldCountEveryEventAcrossPartialLastBatch() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> Mono.just(ClientResponse.create(HttpStatus.OK).build()))
+                .build();
+        ReactiveProcessor processor = new ReactiveProcessor(webClient, new CancellationStats(),
+                new RetryPolicy(0, 100, 300, 0.1, 100), new DownstreamTargets(4), metrics(),
+                new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers(),
+                new HedgePolicy(false, 0, 5, 100), new CallCoalescer(1000, 1024),
+                new FairQueuing("request", ""), 4, 64, 0, "item");
+
+        StepVerifier.create(processor.processEvents(new ProcessRequest(1005, 100, 0, "http://stub/slow")))
+                .assertNext(response -> {
+                    assertTrue(response.isOk());
+                    assertEquals(1005, response.getProcessedEvents());
+                    assertEquals(11, response.getBatches());
+                    assertEquals(1005, response.getExternalCallsOk());
+                    assertEquals(0, response.getExternalCallsFail());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldCountServerErrorsAsFailuresAfterRetries() {
+        AtomicInteger exchanges = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> {
+                    exchanges.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                })
+                .build();
+        ReactiveProcessor processor = new ReactiveProcessor(webClient, new CancellationStats(),
+                new RetryPolicy(1, 1, 1, 1.0, 100), new DownstreamTargets(4), metrics(),
+                new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers(),
+                new HedgePolicy(false, 0, 5, 100), new CallCoalescer(1000, 1024),
+                new FairQueuing("request", ""), 1, 4, 0, "item");
+
+        StepVerifier.create(processor.processEvents(new ProcessRequest(10, 5, 0, "http://stub/slow")))
+                .assertNext(response -> {
+                    assertFalse(response.isOk());
+                    assertEquals(10, response.getProcessedEvents());
+                    assertEquals(2, response.getBatches());
+                    assertEquals(10, response.getExternalCallsFail());
+                    assertEquals(10, response.getLatencyFirstAttemptMs().count());
+                    assertEquals(10, response.getLatencyWithRetriesMs().count());
+                })
+                .verifyComplete();
+        assertEquals(20, exchanges.get());
+    }
+
+    @Test
+    void shouldFailFastOnceTheBreakerOpens() {
+        AtomicInteger exchanges = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> {
+                    exchanges.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                })
+                .build();
+        ReactiveProcessor processor = new ReactiveProcessor(webClient, new CancellationStats(),
+                new RetryPolicy(1, 1, 1, 1.0, 100), new DownstreamTargets(4), metrics(),
+                new AdaptiveLimit("fixed", 256, 8, 1024, 1000),
+                new CircuitBreakers(true, 10, 4, 50, 1000, 80, 60_000, 2),
+                new HedgePolicy(false, 0, 5, 100), new CallCoalescer(1000, 1024),
+                new FairQueuing("request", ""), 1, 1, 0, "item");
+
+        StepVerifier.create(processor.processEvents(new ProcessRequest(50, 10, 0, "http://stub/slow")))
+                .assertNext(response -> {
+                    assertEquals(50, response.getExternalCallsFail());
+                    assertEquals(48, response.getCallsFastFailed());
+                })
+                .verifyComplete();
+        // Two calls (first attempt + retry each) fill the minimum window; the breaker then refuses the rest
+        assertEquals(4, exchanges.get());
+    }
+
+    @Test
+    void shouldHedgeSlowCallsAndKeepTheFasterAnswer() {
+        AtomicInteger exchanges = new AtomicInteger();
+        // Every other exchange hangs for 500ms; its hedge, sent after 20ms, answers at once
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> {
+                    Mono<ClientResponse> ok = Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                    return exchanges.getAndIncrement() % 2 == 0 ? ok.delayElement(Duration.ofMillis(500)) : ok;
+                })
+                .build();
+        ReactiveProcessor processor = new ReactiveProcessor(webClient, new CancellationStats(),
+                new RetryPolicy(0, 100, 300, 0.1, 100), new DownstreamTargets(4), metrics(),
+                new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers(),
+                new HedgePolicy(true, 20, 100, 100), new CallCoalescer(1000, 1024),
+                new FairQueuing("request", ""), 1, 1, 0, "item");
+
+        StepVerifier.create(processor.processEvents(new ProcessRequest(4, 2, 0, "http://stub/slow")))
+                .assertNext(response -> {
+                    assertEquals(4, response.getExternalCallsOk());
+                    assertEquals(4, response.getHedgesSent());
+                    assertEquals(4, response.getHedgesWon());
+                    assertTrue(response.getDurationMs() < 1000, "took " + response.getDurationMs() + "ms");
+                })
+                .verifyComplete();
+    }
+
+    private static ReactiveProcessor hedgingProcessor(WebClient webClient) {
+        return hedgingProcessor(webClient, breakers());
+    }
+
+    private static ReactiveProcessor hedgingProcessor(WebClient webClient, CircuitBreakers breakers) {
+        return new ReactiveProcessor(webClient, new CancellationStats(),
+                new RetryPolicy(0, 100, 300, 0.1, 100), new DownstreamTargets(4), metrics(),
+                new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers,
+                new HedgePolicy(true, 50, 100, 100), new CallCoalescer(1000, 1024),
+                new FairQueuing("request", ""), 1, 1, 0, "item");
+    }
+
+    @Test
+    void shouldKeepTheSlowSuccessWhenTheHedgeFailsFirst() {
+        AtomicInteger exchanges = new AtomicInteger();
+        // The primary answers 200 after 300ms; its hedge, sent after 50ms, gets a 503 at once
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> exchanges.getAndIncrement() == 0
+                        ? Mono.just(ClientResponse.create(HttpStatus.OK).build()).delayElement(Duration.ofMillis(300))
+                        : Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()))
+                .build();
+
+        StepVerifier.create(hedgingProcessor(webClient).processEvents(new ProcessRequest(1, 1, 0, "http://stub/slow")))
+                .assertNext(response -> {
+                    assertEquals(1, response.getExternalCallsOk());
+                    assertEquals(0, response.getExternalCallsFail());
+                    assertEquals(1, response.getHedgesSent());
+                    assertEquals(0, response.getHedgesWon());
+                })
+                .verifyComplete();
+        assertEquals(2, exchanges.get());
+    }
+
+    @Test
+    void shouldFailOnlyOnceEveryCopyHasFailed() {
+        AtomicInteger exchanges = new AtomicInteger();
+        // The hedge gets a 503 at once, the primary another one after 300ms
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> {
+                    Mono<ClientResponse> unavailable = Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                    return exchanges.getAndIncrement() == 0 ? unavailable.delayElement(Duration.ofMillis(300)) : unavailable;
+                })
+                .build();
+
+        StepVerifier.create(hedgingProcessor(webClient).processEvents(new ProcessRequest(1, 1, 0, "http://stub/slow")))
+                .assertNext(response -> {
+                    assertEquals(0, response.getExternalCallsOk());
+                    assertEquals(1, response.getExternalCallsFail());
+                    assertEquals(1, response.getHedgesSent());
+                    assertTrue(response.getDurationMs() >= 300, "took " + response.getDurationMs() + "ms");
+                })
+                .verifyComplete();
+        assertEquals(2, exchanges.get());
+    }
+
+    @Test
+    void shouldAnswerTheBreakerOnceForAHedgedAttempt() throws Exception {
+        // Opens after 4 failures, half-opens 1ms later and closes after 2 successful probes
+        CircuitBreakers breakers = new CircuitBreakers(true, 10, 4, 50, 1000, 80, 1, 2);
+        CircuitBreakers.Breaker breaker = breakers.forTarget(URI.create("http://stub/slow"));
+        CountDownLatch primarySent = new CountDownLatch(1);
+        AtomicInteger exchanges = new AtomicInteger();
+        // The primary answers 200 after 300ms; its hedge, sent after 50ms, gets a 503 at once
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> {
+                    if (exchanges.getAndIncrement() == 0) {
+                        primarySent.countDown();
+                        return Mono.just(ClientResponse.create(HttpStatus.OK).build()).delayElement(Duration.ofMillis(300));
+                    }
+                    return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                })
+                .build();
+
+        CompletableFuture<ProcessResponse> response = hedgingProcessor(webClient, breakers)
+                .processEvents(new ProcessRequest(1, 1, 0, "http://stub/slow"))
+                .toFuture();
+        // Before the hedge is sent, other calls trip the host and a probe half-opens it
+        assertTrue(primarySent.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(0, false);
+        }
+        Thread.sleep(5);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreakers.State.HALF_OPEN, breaker.state());
+
+        ProcessResponse done = response.get(5, TimeUnit.SECONDS);
+        assertEquals(1, done.getExternalCallsOk());
+        assertEquals(1, done.getHedgesSent());
+        assertEquals(1, done.getLatencyFirstAttemptMs().count());
+        // The attempt succeeded: its failed hedge must not reopen the host, so one more probe closes it
+        assertEquals(CircuitBreakers.State.HALF_OPEN, breaker.state());
+        breaker.onResult(0, true);
+        assertEquals(CircuitBreakers.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void shouldNotHedgeAPrimaryThatFailedBeforeTheDelay() {
+        AtomicInteger exchanges = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> {
+                    exchanges.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                })
+                .build();
+
+        StepVerifier.create(hedgingProcessor(webClient).processEvents(new ProcessRequest(1, 1, 0, "http://stub/slow")))
+                .assertNext(response -> {
+                    assertEquals(1, response.getExternalCallsFail());
+                    assertEquals(0, response.getHedgesSent());
+                })
+                .verifyComplete();
+        assertEquals(1, exchanges.get());
+    }
+
+    @Test
+    void shouldSendOneRequestPerBatchAndCountFailedIds() {
+        AtomicInteger exchanges = new AtomicInteger();
+        // slow-io /slow/batch reports two failed ids per batch
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> {
+                    exchanges.incrementAndGet();
+                    assertEquals("/slow/batch", req.url().getPath());
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"ok\":true,\"count\":10,\"failed\":[1,2]}")
+                            .build());
+                })
+                .build();
+        ReactiveProcessor processor = new ReactiveProcessor(webClient, new CancellationStats(),
+                new RetryPolicy(0, 100, 300, 0.1, 100), new DownstreamTargets(4), metrics(),
+                new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers(),
+                new HedgePolicy(false, 0, 5, 100), new CallCoalescer(1000, 1024),
+                new FairQueuing("request", ""), 4, 64, 0, "batch");
+
+        StepVerifier.create(processor.processEvents(new ProcessRequest(25, 10, 0, "http://stub/slow")))
+                .assertNext(response -> {
+                    assertEquals(25, response.getProcessedEvents());
+                    assertEquals(19, response.getExternalCallsOk());
+                    assertEquals(6, response.getExternalCallsFail());
+                    assertEquals(3, response.getLatencyWithRetriesMs().count());
+                })
+                .verifyComplete();
+        assertEquals(3, exchanges.get());
+    }
+
+    @Test
+    void shouldCoalesceIdenticalCallsWhenRequested() {
+        AtomicInteger exchanges = new AtomicInteger();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(req -> {
+                    exchanges.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.OK).build()).delayElement(Duration.ofMillis(20));
+                })
+                .build();
+        CallCoalescer coalescer = new CallCoalescer(60_000, 16);
+        ReactiveProcessor processor = new ReactiveProcessor(webClient, new CancellationStats(),
+                new RetryPolicy(0, 100, 300, 0.1, 100), new DownstreamTargets(4), metrics(),
+                new AdaptiveLimit("fixed", 256, 8, 1024, 1000), breakers(),
+                new HedgePolicy(false, 0, 5, 100), coalescer,
+                new FairQueuing("request", ""), 4, 64, 0, "item");
+        ProcessRequest request = new ProcessRequest(100, 10, 0, "http://stub/slow");
+        request.setCoalesce(true);
+
+        StepVerifier.create(processor.processEvents(request))
+                .assertNext(response -> assertEquals(100, response.getExternalCallsOk()))
+                .verifyComplete();
+        assertEquals(1, exchanges.get());
+        assertEquals(1, coalescer.misses());
+        assertEquals(99, coalescer.hits() + coalescer.coalesced());
+    }
 }
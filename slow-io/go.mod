@@ -1,5 +1,5 @@
 module slow-io
 
-go 1.22.0
+go 1.24.0
 
 require github.com/google/uuid v1.6.0
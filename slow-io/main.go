@@ -31,6 +31,24 @@ type response struct {
 	Path      string `json:"path"`
 }
 
+// Corpo de POST /slow/batch
+type batchRequest struct {
+	IDs []int `json:"ids"`
+}
+
+type batchResponse struct {
+	OK        bool   `json:"ok"`
+	Count     int    `json:"count"`
+	Failed    []int  `json:"failed"`
+	DelayMs   int    `json:"delay_ms"`
+	JitterMs  int    `json:"jitter_ms"`
+	Code      int    `json:"code"`
+	Timestamp string `json:"ts"`
+	Instance  string `json:"instance"`
+	RequestID string `json:"request_id"`
+	Path      string `json:"path"`
+}
+
 type logEntry struct {
 	Level     string `json:"level"`
 	Msg       string `json:"msg"`
@@ -39,6 +57,9 @@ type logEntry struct {
 	Code      int    `json:"code"`
 	Path      string `json:"path"`
 	Method    string `json:"method"`
+	Proto     string `json:"proto"`
+	Items     int    `json:"items,omitempty"`
+	Failed    int    `json:"failed,omitempty"`
 	RemoteIP  string `json:"remote_ip"`
 	LatencyMs int64  `json:"latency_ms"`
 	RequestID string `json:"request_id"`
@@ -57,6 +78,34 @@ func getenvInt(key string, def int) int {
 	return i
 }
 
+func queryInt(r *http.Request, key string, def int) int {
+	if q := r.URL.Query().Get(key); q != "" {
+		if i, err := strconv.Atoi(q); err == nil {
+			return i
+		}
+	}
+	return def
+}
+
+// delay_ms (limitado a maxDelayMs) + jitter uniforme 0..jitter_ms
+func requestDelay(r *http.Request, baseDelay int) (delayMs int, jitterMs int) {
+	delayMs = queryInt(r, "delay_ms", baseDelay)
+	if delayMs < 0 {
+		delayMs = 0
+	}
+	if delayMs > maxDelayMs {
+		delayMs = maxDelayMs
+	}
+	jitterMs = queryInt(r, "jitter_ms", 0)
+	if jitterMs < 0 {
+		jitterMs = 0
+	}
+	if jitterMs > 0 {
+		delayMs += rand.IntN(jitterMs + 1) // 0..jitterMs
+	}
+	return delayMs, jitterMs
+}
+
 func main() {
 	log.Println("Starting slow-io service...")
 
@@ -78,7 +127,12 @@ func main() {
 		instance = fmt.Sprintf("slow-io-%s", uuid.NewString())
 	}
 
-	log.Printf("slow-io configuration: port=%s, baseDelay=%d, instance=%s", port, baseDelay, instance)
+	// H2C=true aceita HTTP/2 sem TLS (prior knowledge) além de HTTP/1.1 na mesma porta
+	h2c := strings.EqualFold(strings.TrimSpace(os.Getenv("H2C")), "true")
+	maxStreams := getenvInt("H2_MAX_CONCURRENT_STREAMS", 250)
+
+	log.Printf("slow-io configuration: port=%s, baseDelay=%d, instance=%s, h2c=%t, h2MaxStreams=%d",
+		port, baseDelay, instance, h2c, maxStreams)
 
 	mux := http.NewServeMux()
 
@@ -97,49 +151,110 @@ func main() {
 		}
 
 		// parâmetros
-		delayMs := baseDelay
-		if q := r.URL.Query().Get("delay_ms"); q != "" {
-			if i, err := strconv.Atoi(q); err == nil {
-				delayMs = i
-			}
+		delayMs, jitterMs := requestDelay(r, baseDelay)
+
+		code := queryInt(r, "code", 200)
+		if code < 100 || code > 599 {
+			code = 200
 		}
-		if delayMs < 0 {
-			delayMs = 0
+
+		// Simula I/O bloqueante
+		time.Sleep(time.Duration(delayMs) * time.Millisecond)
+
+		w.Header().Set("Content-Type", "application/json")
+		w.Header().Set("X-Instance", instance)
+		w.Header().Set("X-Request-Id", reqID)
+		w.WriteHeader(code)
+
+		resp := response{
+			OK:        code >= 200 && code < 300,
+			DelayMs:   delayMs,
+			JitterMs:  jitterMs,
+			Code:      code,
+			Timestamp: time.Now().Format(time.RFC3339Nano),
+			Instance:  instance,
+			RequestID: reqID,
+			Path:      r.URL.Path,
 		}
-		if delayMs > maxDelayMs {
-			delayMs = maxDelayMs
+		_ = json.NewEncoder(w).Encode(resp)
+
+		// Log estruturado
+		entry := logEntry{
+			Level:     "info",
+			Msg:       "served /slow",
+			DelayMs:   delayMs,
+			JitterMs:  jitterMs,
+			Code:      code,
+			Path:      r.URL.Path,
+			Method:    r.Method,
+			Proto:     r.Proto,
+			RemoteIP:  r.RemoteAddr,
+			LatencyMs: time.Since(start).Milliseconds(),
+			RequestID: reqID,
+			Time:      time.Now().Format(time.RFC3339Nano),
 		}
+		b, _ := json.Marshal(entry)
+		log.Println(string(b))
+	})
 
-		jitterMs := 0
-		if q := r.URL.Query().Get("jitter_ms"); q != "" {
-			if i, err := strconv.Atoi(q); err == nil && i >= 0 {
-				jitterMs = i
-			}
+	// POST /slow/batch?delay_ms=50&jitter_ms=20&per_item_us=100&fail_rate=0.01&code=200
+	// Body {"ids":[...]}; um único atraso por lote (delay_ms + per_item_us por item) e status por item:
+	// "failed" lista os ids que falharam (sorteados com probabilidade fail_rate).
+	mux.HandleFunc("/slow/batch", func(w http.ResponseWriter, r *http.Request) {
+		start := time.Now()
+		if r.Method != http.MethodPost {
+			w.Header().Set("Allow", http.MethodPost)
+			http.Error(w, "method not allowed", http.StatusMethodNotAllowed)
+			return
 		}
-		if jitterMs > 0 {
-			delayMs += rand.IntN(jitterMs + 1) // 0..jitterMs
+		reqID := r.Header.Get("X-Request-Id")
+		if reqID == "" {
+			reqID = uuid.NewString()
+		}
+
+		var body batchRequest
+		if err := json.NewDecoder(http.MaxBytesReader(w, r.Body, 8<<20)).Decode(&body); err != nil {
+			http.Error(w, "invalid body: "+err.Error(), http.StatusBadRequest)
+			return
 		}
 
-		code := 200
-		if q := r.URL.Query().Get("code"); q != "" {
-			if i, err := strconv.Atoi(q); err == nil {
-				code = i
+		delayMs, jitterMs := requestDelay(r, baseDelay)
+		perItemUs := queryInt(r, "per_item_us", 0)
+		if perItemUs < 0 {
+			perItemUs = 0
+		}
+		failRate := 0.0
+		if q := r.URL.Query().Get("fail_rate"); q != "" {
+			if f, err := strconv.ParseFloat(q, 64); err == nil && f >= 0 && f <= 1 {
+				failRate = f
 			}
 		}
+		code := queryInt(r, "code", 200)
 		if code < 100 || code > 599 {
 			code = 200
 		}
 
-		// Simula I/O bloqueante
-		time.Sleep(time.Duration(delayMs) * time.Millisecond)
+		// Simula I/O bloqueante: um atraso por lote mais um custo por item
+		time.Sleep(time.Duration(delayMs)*time.Millisecond + time.Duration(perItemUs*len(body.IDs))*time.Microsecond)
+
+		failed := make([]int, 0)
+		if failRate > 0 {
+			for _, id := range body.IDs {
+				if rand.Float64() < failRate {
+					failed = append(failed, id)
+				}
+			}
+		}
 
 		w.Header().Set("Content-Type", "application/json")
 		w.Header().Set("X-Instance", instance)
 		w.Header().Set("X-Request-Id", reqID)
 		w.WriteHeader(code)
 
-		resp := response{
+		resp := batchResponse{
 			OK:        code >= 200 && code < 300,
+			Count:     len(body.IDs),
+			Failed:    failed,
 			DelayMs:   delayMs,
 			JitterMs:  jitterMs,
 			Code:      code,
@@ -150,15 +265,17 @@ func main() {
 		}
 		_ = json.NewEncoder(w).Encode(resp)
 
-		// Log estruturado
 		entry := logEntry{
 			Level:     "info",
-			Msg:       "served /slow",
+			Msg:       "served /slow/batch",
 			DelayMs:   delayMs,
 			JitterMs:  jitterMs,
 			Code:      code,
 			Path:      r.URL.Path,
 			Method:    r.Method,
+			Proto:     r.Proto,
+			Items:     len(body.IDs),
+			Failed:    len(failed),
 			RemoteIP:  r.RemoteAddr,
 			LatencyMs: time.Since(start).Milliseconds(),
 			RequestID: reqID,
@@ -176,6 +293,13 @@ func main() {
 		WriteTimeout:      15 * time.Second,
 		IdleTimeout:       60 * time.Second,
 	}
+	if h2c {
+		var protocols http.Protocols
+		protocols.SetHTTP1(true)
+		protocols.SetUnencryptedHTTP2(true)
+		srv.Protocols = &protocols
+		srv.HTTP2 = &http.HTTP2Config{MaxConcurrentStreams: maxStreams}
+	}
 
 	log.Printf("slow-io listening on :%s (BASE_DELAY_MS=%d)\n", port, baseDelay)
 	if err := srv.ListenAndServe(); err != nil && err != http.ErrServerClosed {